@@ -0,0 +1,160 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.annotation;
+
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Term;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Inverted index of the annotations of the terms of a version of an ontology: the terms with a
+ * given value of an annotation, for example the terms of PSI-MOD with the DiffFormula
+ * "C 0 H 0 N 0 O 1". Used by
+ * {@link uk.ac.ebi.pride.utilities.ols.web.service.client.OLSClient#getTermsByAnnotationData(String, String, String)}.
+ *
+ * The values are normalized (lower case, single spaces) and every value of an annotation is
+ * indexed, not only the first one. For every annotation type the distinct values are sorted, so
+ * the values starting with a prefix are a contiguous range, and hashed for the exact lookups. The
+ * annotation types are interned, as they are shared by most of the terms.
+ */
+public class AnnotationValueIndex {
+
+    private final String ontologyId;
+    private final String version;
+    private final Term[] terms;
+
+    private final Map<String, Values> valuesByType;
+
+    private AnnotationValueIndex(String ontologyId, String version, Term[] terms, Map<String, Values> valuesByType) {
+        this.ontologyId = ontologyId;
+        this.version = version;
+        this.terms = terms;
+        this.valuesByType = valuesByType;
+    }
+
+    /**
+     * Index the annotations of the terms of an ontology.
+     *
+     * @param ontologyId id of the ontology
+     * @param version    version of the ontology the terms were read from, null if unknown
+     * @param terms      terms of the ontology
+     */
+    public static AnnotationValueIndex build(String ontologyId, String version, List<Term> terms) {
+        Term[] indexed = terms.toArray(new Term[0]);
+        Map<String, TreeMap<String, BitSet>> positions = new HashMap<>();
+        for (int term = 0; term < indexed.length; term++) {
+            Term current = indexed[term];
+            if (current == null || current.getAnnotation() == null)
+                continue;
+            for (Map.Entry<String, List<String>> annotation : current.getAnnotation().getAnnotation().entrySet()) {
+                if (annotation.getValue() == null)
+                    continue;
+                TreeMap<String, BitSet> values = positions.computeIfAbsent(annotation.getKey().intern(), key -> new TreeMap<>());
+                for (String value : annotation.getValue()) {
+                    String normalized = normalize(value);
+                    if (!normalized.isEmpty())
+                        values.computeIfAbsent(normalized, key -> new BitSet()).set(term);
+                }
+            }
+        }
+        Map<String, Values> valuesByType = new HashMap<>();
+        positions.forEach((type, values) -> valuesByType.put(type, new Values(values)));
+        return new AnnotationValueIndex(ontologyId, version, indexed, valuesByType);
+    }
+
+    public String getOntologyId() {
+        return ontologyId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public Set<String> getAnnotationTypes() {
+        return Collections.unmodifiableSet(valuesByType.keySet());
+    }
+
+    /**
+     * @param annotationType annotation type, for example DiffFormula
+     * @param value          value of the annotation, case and blanks are ignored
+     * @return the terms with the value for the annotation, in the order of the ontology.
+     */
+    public List<Term> getTerms(String annotationType, String value) {
+        Values values = annotationType == null ? null : valuesByType.get(annotationType);
+        if (values == null)
+            return new ArrayList<>();
+        Integer position = values.positions.get(normalize(value));
+        return position == null ? new ArrayList<>() : toTerms(values.terms[position]);
+    }
+
+    /**
+     * @param annotationType annotation type, for example database_cross_reference
+     * @param prefix         beginning of the value, case and blanks are ignored
+     * @return the terms with a value of the annotation starting with the prefix, in the order of the ontology.
+     */
+    public List<Term> getTermsByPrefix(String annotationType, String prefix) {
+        Values values = annotationType == null ? null : valuesByType.get(annotationType);
+        String normalized = normalize(prefix);
+        if (values == null || normalized.isEmpty())
+            return new ArrayList<>();
+        int position = Arrays.binarySearch(values.values, normalized);
+        if (position < 0)
+            position = -position - 1;
+        BitSet matches = new BitSet();
+        for (; position < values.values.length && values.values[position].startsWith(normalized); position++)
+            for (int term : values.terms[position])
+                matches.set(term);
+        return toTerms(matches.stream().toArray());
+    }
+
+    private List<Term> toTerms(int[] positions) {
+        List<Term> result = new ArrayList<>(positions.length);
+        for (int position : positions)
+            result.add(terms[position]);
+        return result;
+    }
+
+    /*
+     * Lower case, with the blanks trimmed and the runs of blanks replaced by a single space.
+     */
+    static String normalize(String value) {
+        if (value == null)
+            return "";
+        return value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return "AnnotationValueIndex{" +
+                "ontologyId='" + ontologyId + '\'' +
+                ", version='" + version + '\'' +
+                ", annotationTypes=" + valuesByType.size() +
+                '}';
+    }
+
+    /*
+     * Sorted distinct values of an annotation type and the positions of their terms.
+     */
+    private static final class Values {
+        private final String[] values;
+        private final int[][] terms;
+        private final Map<String, Integer> positions;
+
+        private Values(TreeMap<String, BitSet> sorted) {
+            values = sorted.keySet().toArray(new String[0]);
+            terms = new int[values.length][];
+            positions = new HashMap<>(values.length * 2);
+            for (int position = 0; position < values.length; position++) {
+                terms[position] = sorted.get(values[position]).stream().toArray();
+                positions.put(values[position], position);
+            }
+        }
+    }
+}
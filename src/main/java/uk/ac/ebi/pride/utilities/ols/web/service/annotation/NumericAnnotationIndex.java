@@ -0,0 +1,186 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.annotation;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Term;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Numeric annotations of the terms of a version of an ontology (for example the DiffMono,
+ * DiffAvg, MassMono and MassAvg masses of PSI-MOD), sorted by value so a range or a mass with a
+ * tolerance is found by binary search. Used by
+ * {@link uk.ac.ebi.pride.utilities.ols.web.service.client.OLSClient#getTermsByAnnotationData(String, String, double, double)}.
+ *
+ * Only the first value of an annotation is read, and only when it is a number. For every annotation
+ * type the values are kept in a double[] with the positions of their terms in a parallel int[].
+ */
+public class NumericAnnotationIndex {
+
+    private static final double PPM = 1000000.0;
+
+    private final String ontologyId;
+    private final String version;
+    private final Term[] terms;
+
+    private final Map<String, Values> valuesByType;
+
+    private NumericAnnotationIndex(String ontologyId, String version, Term[] terms, Map<String, Values> valuesByType) {
+        this.ontologyId = ontologyId;
+        this.version = version;
+        this.terms = terms;
+        this.valuesByType = valuesByType;
+    }
+
+    /**
+     * Index the numeric annotations of the terms of an ontology.
+     *
+     * @param ontologyId id of the ontology
+     * @param version    version of the ontology the terms were read from, null if unknown
+     * @param terms      terms of the ontology
+     */
+    public static NumericAnnotationIndex build(String ontologyId, String version, List<Term> terms) {
+        Term[] indexed = terms.toArray(new Term[0]);
+        Map<String, List<double[]>> pairs = new HashMap<>();
+        for (int term = 0; term < indexed.length; term++) {
+            Term current = indexed[term];
+            if (current == null || current.getAnnotation() == null)
+                continue;
+            for (Map.Entry<String, List<String>> annotation : current.getAnnotation().getAnnotation().entrySet()) {
+                List<String> values = annotation.getValue();
+                if (values == null || values.isEmpty() || !NumberUtils.isNumber(values.get(0)))
+                    continue;
+                double value;
+                try {
+                    value = Double.parseDouble(values.get(0));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (!Double.isNaN(value))
+                    pairs.computeIfAbsent(annotation.getKey(), key -> new ArrayList<>()).add(new double[]{value, term});
+            }
+        }
+        Map<String, Values> valuesByType = new HashMap<>();
+        pairs.forEach((type, list) -> valuesByType.put(type, new Values(list)));
+        return new NumericAnnotationIndex(ontologyId, version, indexed, valuesByType);
+    }
+
+    public String getOntologyId() {
+        return ontologyId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the annotation types with at least one numeric value.
+     */
+    public Set<String> getAnnotationTypes() {
+        return Collections.unmodifiableSet(valuesByType.keySet());
+    }
+
+    /**
+     * @param annotationType annotation type, for example DiffMono
+     * @param from           lowest value, included
+     * @param to             highest value, included
+     * @return the terms with a value of the annotation in the range, in the order of the ontology.
+     */
+    public List<Term> getTerms(String annotationType, double from, double to) {
+        Values values = valuesByType.get(annotationType);
+        if (values == null || from > to)
+            return new ArrayList<>();
+        int start = values.lowerBound(from);
+        int end = values.upperBound(to);
+        int[] positions = Arrays.copyOfRange(values.terms, start, Math.max(start, end));
+        Arrays.sort(positions);
+        List<Term> result = new ArrayList<>(positions.length);
+        for (int position : positions)
+            result.add(terms[position]);
+        return result;
+    }
+
+    /**
+     * @param tolerance absolute tolerance, in the unit of the annotation (Da for the masses)
+     * @return the terms with a value of the annotation within the tolerance of the value.
+     */
+    public List<Term> getTermsWithinDa(String annotationType, double value, double tolerance) {
+        return getTerms(annotationType, value - Math.abs(tolerance), value + Math.abs(tolerance));
+    }
+
+    /**
+     * @param ppm tolerance in parts per million of the value
+     * @return the terms with a value of the annotation within the tolerance of the value.
+     */
+    public List<Term> getTermsWithinPpm(String annotationType, double value, double ppm) {
+        return getTermsWithinDa(annotationType, value, value * ppm / PPM);
+    }
+
+    @Override
+    public String toString() {
+        return "NumericAnnotationIndex{" +
+                "ontologyId='" + ontologyId + '\'' +
+                ", version='" + version + '\'' +
+                ", annotationTypes=" + valuesByType.size() +
+                '}';
+    }
+
+    /*
+     * Sorted values of an annotation type and the positions of their terms.
+     */
+    private static final class Values {
+        private final double[] values;
+        private final int[] terms;
+
+        private Values(List<double[]> pairs) {
+            int[] order = IntStream.range(0, pairs.size()).boxed()
+                    .sorted(Comparator.comparingDouble(i -> pairs.get(i)[0]))
+                    .mapToInt(Integer::intValue).toArray();
+            values = new double[order.length];
+            terms = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                values[i] = pairs.get(order[i])[0];
+                terms[i] = (int) pairs.get(order[i])[1];
+            }
+        }
+
+        /*
+         * First value that is not lower than the bound.
+         */
+        private int lowerBound(double bound) {
+            int from = 0;
+            int to = values.length;
+            while (from < to) {
+                int middle = (from + to) >>> 1;
+                if (values[middle] < bound)
+                    from = middle + 1;
+                else
+                    to = middle;
+            }
+            return from;
+        }
+
+        /*
+         * First value that is higher than the bound.
+         */
+        private int upperBound(double bound) {
+            int from = 0;
+            int to = values.length;
+            while (from < to) {
+                int middle = (from + to) >>> 1;
+                if (values[middle] <= bound)
+                    from = middle + 1;
+                else
+                    to = middle;
+            }
+            return from;
+        }
+    }
+}
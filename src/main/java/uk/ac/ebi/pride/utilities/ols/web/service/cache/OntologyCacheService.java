@@ -1,51 +1,104 @@
 package uk.ac.ebi.pride.utilities.ols.web.service.cache;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import uk.ac.ebi.pride.utilities.ols.web.service.client.OLSClient;
+import uk.ac.ebi.pride.utilities.ols.web.service.config.AbstractOLSWsConfig;
 import uk.ac.ebi.pride.utilities.ols.web.service.config.OLSWsConfigProd;
 import uk.ac.ebi.pride.utilities.ols.web.service.model.Identifier;
-import uk.ac.ebi.pride.utilities.ols.web.service.model.Term;
-
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import uk.ac.ebi.pride.utilities.ols.web.service.utils.Constants;
+import uk.ac.ebi.pride.utilities.ols.web.service.utils.SingleFlight;
 
+/**
+ * Check if ontology terms exist in OLS, remembering the answers.
+ *
+ * Existing terms are kept for the term cache time to live of the client configuration and
+ * unknown terms for the (shorter) negative time to live. The least valuable entries are evicted
+ * once the cache is full. Concurrent checks of the same accession share a single OLS request.
+ *
+ * @author ypriverol
+ */
+@Slf4j
 @Service
 public class OntologyCacheService {
 
-    private static OLSClient olsClient = new OLSClient(new OLSWsConfigProd());
+    private final OLSClient olsClient;
+
+    private final TinyLfuCache<String, Boolean> ontologyTerms;
+
+    private final long negativeTtl;
+
+    private final SingleFlight<String, Boolean> loads = new SingleFlight<>();
+
+    OntologyCacheService() {
+        this(new OLSClient(new OLSWsConfigProd()), Constants.DEFAULT_ONTOLOGY_CACHE_SIZE);
+    }
+
+    /**
+     * @param olsClient client used to look up the terms that are not in the cache
+     * @param maximumSize maximum number of accessions kept in the cache
+     */
+    public OntologyCacheService(OLSClient olsClient, int maximumSize) {
+        this(olsClient, maximumSize, olsClient.getConfig().getTermCacheTtl(), olsClient.getConfig().getTermCacheNegativeTtl());
+    }
 
-    private Set<String> ontologyTermSet;
-    private AtomicInteger size=new AtomicInteger(0);
-    private final int maxCapacity=100;
+    /**
+     * @param olsClient   client used to look up the terms that are not in the cache
+     * @param maximumSize maximum number of accessions kept in the cache
+     * @param ttl         time to live of the existing terms in milliseconds
+     * @param negativeTtl time to live of the unknown terms in milliseconds, 0 or less to not cache them
+     */
+    public OntologyCacheService(OLSClient olsClient, int maximumSize, long ttl, long negativeTtl) {
+        this.olsClient = olsClient;
+        this.ontologyTerms = new TinyLfuCache<>(maximumSize, ttl);
+        this.negativeTtl = negativeTtl;
+    }
 
-    OntologyCacheService(){
-        System.out.println("######## New Ontology Cache Object Initialized ##########");
-        //creating a concurrent hash set implementation for java 8
-        ontologyTermSet = ConcurrentHashMap.newKeySet(maxCapacity);
+    /**
+     * Create a service with its own client for the given configuration.
+     *
+     * @param config configuration of the OLS client
+     */
+    public OntologyCacheService(AbstractOLSWsConfig config) {
+        this(new OLSClient(config), Constants.DEFAULT_ONTOLOGY_CACHE_SIZE);
     }
 
-    public boolean isTermExisting(String attributeAccession, String ontologyAccession){
-        StringBuilder ontologyKey = new StringBuilder(attributeAccession+ontologyAccession);
-        if(ontologyTermSet.contains(ontologyKey.toString())){
-            System.out.println("Ontology Cache Current Size:"+size.get());
-            return true;
-        }else{
-            Term term =  olsClient.getTermById(new Identifier(attributeAccession, Identifier.IdentifierType.OBO), ontologyAccession);
-            if(term!=null){
-                //check if cache size is exceeding
-                if(size.get()<maxCapacity) {
-                    ontologyTermSet.add(ontologyKey.toString());
-                    size.incrementAndGet();
-                    System.out.println("Ontology Cache Size Incremented:"+size.get());
-                }
-                return true;
-            }else{
-                return false;
-            }
-        }
+    /**
+     * Check if a term exists in an ontology.
+     *
+     * @param attributeAccession OBO accession of the term, i.e. MS:1002732
+     * @param ontologyAccession  ontology of the term, i.e. ms
+     * @return true if the term exists in the ontology
+     */
+    public boolean isTermExisting(String attributeAccession, String ontologyAccession) {
+        String key = attributeAccession + "|" + (ontologyAccession != null ? ontologyAccession.toLowerCase() : "");
+        Boolean existing = ontologyTerms.get(key);
+        if (existing != null)
+            return existing;
+        return loads.execute(key, () -> {
+            // another thread may have completed the same lookup after the check above
+            Boolean cached = ontologyTerms.get(key);
+            if (cached != null)
+                return cached;
+            boolean found = olsClient.getTermById(new Identifier(attributeAccession, Identifier.IdentifierType.OBO), ontologyAccession) != null;
+            if (found)
+                ontologyTerms.put(key, Boolean.TRUE);
+            else if (negativeTtl > 0)
+                ontologyTerms.putWithTtl(key, Boolean.FALSE, negativeTtl);
+            log.debug("Ontology term {} loaded, found: {}", key, found);
+            return found;
+        });
     }
 
+    public CacheStats getStats() {
+        return ontologyTerms.stats();
+    }
 
+    public void invalidateAll() {
+        ontologyTerms.invalidateAll();
+    }
 
+    public OLSClient getOlsClient() {
+        return olsClient;
+    }
 }
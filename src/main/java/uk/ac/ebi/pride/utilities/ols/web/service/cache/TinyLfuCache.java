@@ -0,0 +1,271 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded in-memory cache with a W-TinyLFU eviction policy and a time-to-live per entry.
+ *
+ * New entries go to a small LRU window (1% of the capacity). When the window is full, its oldest
+ * entry competes with the oldest entry of the main space: the {@link FrequencySketch} estimates how
+ * often each of them has been requested recently and the less popular one is evicted. The main space
+ * is a segmented LRU where entries requested again are promoted from the probation to the protected
+ * segment. This keeps frequently requested terms in the cache even when a burst of one-off lookups
+ * goes through it.
+ *
+ * Lookups read a concurrent map and do not wait for the policy lock: if the lock is busy the access is
+ * not recorded in the policy. Writes are serialized by the lock.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+public class TinyLfuCache<K, V> {
+
+    private enum Segment {WINDOW, PROBATION, PROTECTED}
+
+    private static final class Node<K, V> {
+        private final K key;
+        private volatile V value;
+        private volatile long expiresAt;
+        private Segment segment = Segment.WINDOW;
+
+        private Node(K key, V value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+
+    private final int maximumSize;
+    private final int maxWindow;
+    private final int maxProtected;
+    private final long defaultTtlNanos;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final FrequencySketch sketch;
+
+    // LRU order of every segment, guarded by the lock
+    private final LinkedHashMap<K, Node<K, V>> window = new LinkedHashMap<>();
+    private final LinkedHashMap<K, Node<K, V>> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<K, Node<K, V>> protectedSegment = new LinkedHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maximumSize      maximum number of entries
+     * @param defaultTtlMillis time to live of the entries added with {@link #put(Object, Object)},
+     *                         0 or less for entries that never expire
+     */
+    public TinyLfuCache(int maximumSize, long defaultTtlMillis) {
+        if (maximumSize <= 0)
+            throw new IllegalArgumentException("The cache size must be positive: " + maximumSize);
+        this.maximumSize = maximumSize;
+        this.maxWindow = Math.max(1, maximumSize / 100);
+        this.maxProtected = (int) ((maximumSize - maxWindow) * 0.8);
+        this.defaultTtlNanos = millisToNanos(defaultTtlMillis);
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * @param key key to look up
+     * @return the cached value, null if the key is not in the cache or its entry expired.
+     */
+    public V get(K key) {
+        Node<K, V> node = data.get(key);
+        long now = System.nanoTime();
+        if (node == null || node.isExpired(now)) {
+            misses.increment();
+            if (node != null)
+                expire(node);
+            else
+                recordAccess(key, null);
+            return null;
+        }
+        hits.increment();
+        recordAccess(key, node);
+        return node.value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, defaultTtlNanos);
+    }
+
+    /**
+     * Add or replace an entry with a specific time to live.
+     *
+     * @param key       key of the entry
+     * @param value     value of the entry
+     * @param ttlMillis time to live of this entry in milliseconds
+     */
+    public void putWithTtl(K key, V value, long ttlMillis) {
+        put(key, value, millisToNanos(ttlMillis));
+    }
+
+    private void put(K key, V value, long ttlNanos) {
+        long expiresAt = System.nanoTime() + ttlNanos;
+        lock.lock();
+        try {
+            sketch.increment(key);
+            Node<K, V> node = data.get(key);
+            if (node != null) {
+                node.value = value;
+                node.expiresAt = expiresAt;
+                onHit(node);
+                return;
+            }
+            node = new Node<>(key, value, expiresAt);
+            data.put(key, node);
+            window.put(key, node);
+            if (window.size() > maxWindow)
+                evictFromWindow();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            Node<K, V> node = data.remove(key);
+            if (node != null)
+                segmentOf(node).remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedSegment.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long size() {
+        return data.size();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), data.size());
+    }
+
+    private void recordAccess(K key, Node<K, V> node) {
+        if (!lock.tryLock())
+            return;
+        try {
+            sketch.increment(key);
+            if (node != null && data.get(key) == node)
+                onHit(node);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void expire(Node<K, V> node) {
+        lock.lock();
+        try {
+            if (data.remove(node.key, node)) {
+                segmentOf(node).remove(node.key);
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onHit(Node<K, V> node) {
+        switch (node.segment) {
+            case WINDOW:
+                moveToTail(window, node);
+                break;
+            case PROBATION:
+                probation.remove(node.key);
+                node.segment = Segment.PROTECTED;
+                protectedSegment.put(node.key, node);
+                if (protectedSegment.size() > maxProtected) {
+                    Node<K, V> demoted = removeHead(protectedSegment);
+                    demoted.segment = Segment.PROBATION;
+                    probation.put(demoted.key, demoted);
+                }
+                break;
+            case PROTECTED:
+                moveToTail(protectedSegment, node);
+                break;
+        }
+    }
+
+    /*
+     * The oldest entry of the window either enters the main space or is evicted,
+     * depending on how its frequency compares with the next main space victim.
+     */
+    private void evictFromWindow() {
+        Node<K, V> candidate = removeHead(window);
+        candidate.segment = Segment.PROBATION;
+        if (probation.size() + protectedSegment.size() < maximumSize - maxWindow) {
+            probation.put(candidate.key, candidate);
+            return;
+        }
+        if (probation.isEmpty() && protectedSegment.isEmpty()) {
+            data.remove(candidate.key, candidate);
+            evictions.increment();
+            return;
+        }
+        LinkedHashMap<K, Node<K, V>> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+        Node<K, V> victim = victimSegment.values().iterator().next();
+        if (victim.isExpired(System.nanoTime()) || sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+            victimSegment.remove(victim.key);
+            data.remove(victim.key, victim);
+            probation.put(candidate.key, candidate);
+        } else {
+            data.remove(candidate.key, candidate);
+        }
+        evictions.increment();
+    }
+
+    private LinkedHashMap<K, Node<K, V>> segmentOf(Node<K, V> node) {
+        switch (node.segment) {
+            case PROBATION:
+                return probation;
+            case PROTECTED:
+                return protectedSegment;
+            default:
+                return window;
+        }
+    }
+
+    private static <K, V> void moveToTail(LinkedHashMap<K, Node<K, V>> segment, Node<K, V> node) {
+        segment.remove(node.key);
+        segment.put(node.key, node);
+    }
+
+    private static <K, V> Node<K, V> removeHead(LinkedHashMap<K, Node<K, V>> segment) {
+        Iterator<Map.Entry<K, Node<K, V>>> iterator = segment.entrySet().iterator();
+        Node<K, V> head = iterator.next().getValue();
+        iterator.remove();
+        return head;
+    }
+
+    private static long millisToNanos(long millis) {
+        return millis <= 0 || millis >= Long.MAX_VALUE / 1_000_000 ? Long.MAX_VALUE / 2 : millis * 1_000_000;
+    }
+}
@@ -0,0 +1,110 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.client;
+
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Identifier;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Ontology;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Term;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous version of the {@link Client}. Every method returns immediately and the returned
+ * future completes with the same value returned by the corresponding {@link Client} method, or
+ * exceptionally with the {@link org.springframework.web.client.RestClientException} it throws.
+ * Independent lookups can therefore overlap instead of waiting for each other.
+ */
+public interface AsyncClient {
+
+    /**
+     * @see Client#getTermById(Identifier, String)
+     */
+    CompletableFuture<Term> getTermByIdAsync(Identifier termId, String ontologyId);
+
+    /**
+     * Retrieve many terms at once, see {@link OLSClient#getTermsByIds(Collection, String)}.
+     */
+    CompletableFuture<Map<Identifier, Term>> getTermsByIdsAsync(Collection<Identifier> termIds, String ontologyId);
+
+    /**
+     * @see Client#getTermDescription(Identifier, String)
+     */
+    CompletableFuture<List<String>> getTermDescriptionAsync(Identifier termId, String ontologyId);
+
+    /**
+     * @see Client#getAnnotations(Identifier, String)
+     */
+    CompletableFuture<Map<String, List<String>>> getAnnotationsAsync(Identifier termId, String ontologyId);
+
+    /**
+     * @see Client#getOntologies()
+     */
+    CompletableFuture<List<Ontology>> getOntologiesAsync();
+
+    /**
+     * @see Client#getOntology(String)
+     */
+    CompletableFuture<Ontology> getOntologyAsync(String ontologyId);
+
+    /**
+     * @see Client#getAllTermsFromOntology(String)
+     */
+    CompletableFuture<List<Term>> getAllTermsFromOntologyAsync(String ontologyId);
+
+    /**
+     * @see Client#getRootTerms(String)
+     */
+    CompletableFuture<List<Term>> getRootTermsAsync(String ontologyId);
+
+    /**
+     * Search the terms that contain the partial name, see {@link Client#getTermsByName(String, String, boolean)}.
+     */
+    CompletableFuture<List<Term>> searchAsync(String partialName, String ontologyId, boolean reverseKeyOrder);
+
+    /**
+     * @see Client#getExactTermByName(String, String)
+     */
+    CompletableFuture<Term> getExactTermByNameAsync(String exactName, String ontologyId);
+
+    /**
+     * @see Client#searchTermById(String, String)
+     */
+    CompletableFuture<List<Term>> searchTermByIdAsync(String identifier, String ontologyId);
+
+    /**
+     * @see Client#getTermChildren(Identifier, String, int)
+     */
+    CompletableFuture<List<Term>> getTermChildrenAsync(Identifier termId, String ontologyId, int distance);
+
+    /**
+     * @see Client#getTermParents(Identifier, String, int)
+     */
+    CompletableFuture<List<Term>> getTermParentsAsync(Identifier termId, String ontologyId, int distance);
+
+    /**
+     * @see Client#isObsolete(Identifier, String)
+     */
+    CompletableFuture<Boolean> isObsoleteAsync(Identifier termId, String ontologyId);
+
+    /**
+     * @see Client#getTermsByAnnotationData(String, String, String)
+     */
+    CompletableFuture<List<Term>> getTermsByAnnotationDataAsync(String ontologyId, String annotationType, String strValue);
+
+    /**
+     * @see Client#getTermsByAnnotationData(String, String, double, double)
+     */
+    CompletableFuture<List<Term>> getTermsByAnnotationDataAsync(String ontologyId, String annotationType, double fromDblValue, double toDblValue);
+
+    /**
+     * @see Client#getSynonyms(Identifier, String)
+     */
+    CompletableFuture<Set<String>> getSynonymsAsync(Identifier identifier, String ontology);
+
+    /**
+     * @see OLSClient#retrieveTerm(String, String)
+     */
+    CompletableFuture<Term> retrieveTermAsync(String id, String ontology);
+}
@@ -0,0 +1,169 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.client;
+
+import uk.ac.ebi.pride.utilities.ols.web.service.config.AbstractOLSWsConfig;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Identifier;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Ontology;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Term;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * {@link AsyncClient} running the requests of an {@link OLSClient} on an executor. The requests
+ * share the connection pool, caches and batching of the underlying client; the number of them
+ * running at the same time is bounded by the executor and by the connection pool size.
+ */
+public class AsyncOLSClient implements AsyncClient, Closeable {
+
+    private final OLSClient client;
+    private final Executor executor;
+    private final boolean ownsClient;
+
+    /**
+     * Create an asynchronous client with its own {@link OLSClient}, the requests run on the
+     * worker threads of that client.
+     *
+     * @param config configuration to use.
+     */
+    public AsyncOLSClient(AbstractOLSWsConfig config) {
+        this(new OLSClient(config), true);
+    }
+
+    /**
+     * Run the requests of the client on its own worker threads.
+     *
+     * @param client client performing the requests
+     */
+    public AsyncOLSClient(OLSClient client) {
+        this(client, client.getExecutor());
+    }
+
+    /**
+     * @param client   client performing the requests
+     * @param executor executor running the requests
+     */
+    public AsyncOLSClient(OLSClient client, Executor executor) {
+        this.client = client;
+        this.executor = executor;
+        this.ownsClient = false;
+    }
+
+    private AsyncOLSClient(OLSClient client, boolean ownsClient) {
+        this.client = client;
+        this.executor = client.getExecutor();
+        this.ownsClient = ownsClient;
+    }
+
+    public OLSClient getClient() {
+        return client;
+    }
+
+    @Override
+    public CompletableFuture<Term> getTermByIdAsync(Identifier termId, String ontologyId) {
+        return supply(() -> client.getTermById(termId, ontologyId));
+    }
+
+    @Override
+    public CompletableFuture<Map<Identifier, Term>> getTermsByIdsAsync(Collection<Identifier> termIds, String ontologyId) {
+        return supply(() -> client.getTermsByIds(termIds, ontologyId));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> getTermDescriptionAsync(Identifier termId, String ontologyId) {
+        return supply(() -> client.getTermDescription(termId, ontologyId));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, List<String>>> getAnnotationsAsync(Identifier termId, String ontologyId) {
+        return supply(() -> client.getAnnotations(termId, ontologyId));
+    }
+
+    @Override
+    public CompletableFuture<List<Ontology>> getOntologiesAsync() {
+        return supply(client::getOntologies);
+    }
+
+    @Override
+    public CompletableFuture<Ontology> getOntologyAsync(String ontologyId) {
+        return supply(() -> client.getOntology(ontologyId));
+    }
+
+    @Override
+    public CompletableFuture<List<Term>> getAllTermsFromOntologyAsync(String ontologyId) {
+        return supply(() -> client.getAllTermsFromOntology(ontologyId));
+    }
+
+    @Override
+    public CompletableFuture<List<Term>> getRootTermsAsync(String ontologyId) {
+        return supply(() -> client.getRootTerms(ontologyId));
+    }
+
+    @Override
+    public CompletableFuture<List<Term>> searchAsync(String partialName, String ontologyId, boolean reverseKeyOrder) {
+        return supply(() -> client.getTermsByName(partialName, ontologyId, reverseKeyOrder));
+    }
+
+    @Override
+    public CompletableFuture<Term> getExactTermByNameAsync(String exactName, String ontologyId) {
+        return supply(() -> client.getExactTermByName(exactName, ontologyId));
+    }
+
+    @Override
+    public CompletableFuture<List<Term>> searchTermByIdAsync(String identifier, String ontologyId) {
+        return supply(() -> client.searchTermById(identifier, ontologyId));
+    }
+
+    @Override
+    public CompletableFuture<List<Term>> getTermChildrenAsync(Identifier termId, String ontologyId, int distance) {
+        return supply(() -> client.getTermChildren(termId, ontologyId, distance));
+    }
+
+    @Override
+    public CompletableFuture<List<Term>> getTermParentsAsync(Identifier termId, String ontologyId, int distance) {
+        return supply(() -> client.getTermParents(termId, ontologyId, distance));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isObsoleteAsync(Identifier termId, String ontologyId) {
+        return supply(() -> client.isObsolete(termId, ontologyId));
+    }
+
+    @Override
+    public CompletableFuture<List<Term>> getTermsByAnnotationDataAsync(String ontologyId, String annotationType, String strValue) {
+        return supply(() -> client.getTermsByAnnotationData(ontologyId, annotationType, strValue));
+    }
+
+    @Override
+    public CompletableFuture<List<Term>> getTermsByAnnotationDataAsync(String ontologyId, String annotationType, double fromDblValue, double toDblValue) {
+        return supply(() -> client.getTermsByAnnotationData(ontologyId, annotationType, fromDblValue, toDblValue));
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> getSynonymsAsync(Identifier identifier, String ontology) {
+        return supply(() -> client.getSynonyms(identifier, ontology));
+    }
+
+    @Override
+    public CompletableFuture<Term> retrieveTermAsync(String id, String ontology) {
+        return supply(() -> client.retrieveTerm(id, ontology));
+    }
+
+    /**
+     * Close the underlying client if it was created by this object.
+     */
+    @Override
+    public void close() {
+        if (ownsClient)
+            client.close();
+    }
+
+    private <T> CompletableFuture<T> supply(Supplier<T> request) {
+        return CompletableFuture.supplyAsync(request, executor);
+    }
+}
@@ -3,17 +3,43 @@ package uk.ac.ebi.pride.utilities.ols.web.service.client;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.math.NumberUtils;
 import org.springframework.web.client.RestClientException;
+import uk.ac.ebi.pride.utilities.ols.web.service.annotation.AnnotationValueIndex;
+import uk.ac.ebi.pride.utilities.ols.web.service.annotation.NumericAnnotationIndex;
+import uk.ac.ebi.pride.utilities.ols.web.service.cache.CacheStats;
+import uk.ac.ebi.pride.utilities.ols.web.service.cache.TinyLfuCache;
 import uk.ac.ebi.pride.utilities.ols.web.service.config.AbstractOLSWsConfig;
+import uk.ac.ebi.pride.utilities.ols.web.service.config.ExecutorMode;
 import uk.ac.ebi.pride.utilities.ols.web.service.model.*;
+import uk.ac.ebi.pride.utilities.ols.web.service.transport.OlsTransport;
+import uk.ac.ebi.pride.utilities.ols.web.service.transport.PooledHttpTransport;
 import uk.ac.ebi.pride.utilities.ols.web.service.utils.Constants;
+import uk.ac.ebi.pride.utilities.ols.web.service.utils.SingleFlight;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 /**
@@ -23,18 +49,75 @@ import java.util.stream.Collectors;
  * @author ypriverol
  */
 @Slf4j
-public class OLSClient implements Client {
+public class OLSClient implements Client, TermHierarchy, Closeable {
 
     private ObjectMapper mapper;
 
     private AbstractOLSWsConfig config;
 
-    private String queryField;
-    private String fieldList;
-    private int searchPageSize;
-    private int searchPageNum;
+    private OlsTransport transport;
 
-    private static int TIME_OUT = 5000;
+    // true when the transport was created from the config and is managed by this client
+    private boolean ownsTransport;
+
+    // workers used to fetch pages of paginated results concurrently
+    private final ExecutorService executor;
+
+    // requests currently waiting for the service, keyed by response type and URI
+    private final SingleFlight<String, Object> inFlightRequests = new SingleFlight<>();
+
+    // ontologies used by the getOntologyFrom... lookups
+    private final OntologyRegistry ontologyRegistry = new OntologyRegistry(this::getOntologies, () -> config.getOntologyRegistryTtl());
+
+    // terms of the ontologies read by the annotation lookups, by ontology id, replaced when the version changes
+    private final Map<String, OntologyAnnotations> ontologyAnnotations = new ConcurrentHashMap<>();
+    private final SingleFlight<String, OntologyAnnotations> annotationLoads = new SingleFlight<>();
+
+    // triggers the term batches, its thread is only started when batching is enabled
+    private final ScheduledExecutorService scheduler;
+
+    // permits of the requests in flight, by host
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    // groups retrieveTerm calls, null when the batching is disabled
+    private TermBatcher termBatcher;
+
+    // terms returned by getTermById and retrieveTerm, null when the cache is disabled
+    private TinyLfuCache<String, Optional<Term>> termCache;
+
+    // defaults of the searches, the per-call options are given with SearchOptions
+    private volatile String queryField;
+    private volatile String fieldList;
+    private volatile int searchPageSize;
+    private volatile int searchPageNum;
+
+    private static final String BATCH_QUERY_FIELD = new QueryFields.QueryFieldBuilder()
+            .setOboId()
+            .setShortForm()
+            .setIri()
+            .build()
+            .toString();
+
+    // the fields read by SearchResult.toTerm
+    private static final String BATCH_FIELD_LIST = new FieldList.FieldListBuilder()
+            .setIri()
+            .setLabel()
+            .setShortForm()
+            .setOboId()
+            .setOntologyName()
+            .setOntologyIri()
+            .setIsDefiningOntology()
+            .setDescription()
+            .setIsObsolete()
+            .build()
+            .toString();
+
+    private static final String IRI_QUERY_FIELD = new QueryFields.QueryFieldBuilder()
+            .setIri()
+            .build()
+            .toString();
+
+    private static final Pattern PAGE_PARAMETER = Pattern.compile("([?&]page=)(\\d+)");
 
     private static final String DEFAULT_QUERY_FIELD = new QueryFields.QueryFieldBuilder()
             .setLabel()
@@ -94,45 +177,235 @@ public class OLSClient implements Client {
         this.fieldList = fieldList;
     }
 
+    /**
+     * Search options initialized with the defaults of this client (query fields, field list,
+     * page size and number of pages). Customize the builder for a single search instead of
+     * changing the defaults, so the client can be shared by many threads.
+     *
+     * @return a builder of search options
+     */
+    public SearchOptions.SearchOptionsBuilder searchOptions() {
+        int pageNum = getSearchPageNum();
+        return new SearchOptions.SearchOptionsBuilder()
+                .setQueryFields(getQueryField())
+                .setFieldList(getFieldList())
+                .setPageSize(getSearchPageSize())
+                .setPageLimit(pageNum < 0 ? -1 : pageNum + 1);
+    }
+
     /**
      * Default constructor for Archive clients
      *
      * @param config configuration to use.
      */
     public OLSClient(AbstractOLSWsConfig config) {
+        this(config, new PooledHttpTransport(config));
+        this.ownsTransport = true;
+    }
+
+    /**
+     * Create a client that sends its requests through the given transport. The transport
+     * is not rebuilt when the configuration changes.
+     *
+     * @param config    configuration to use.
+     * @param transport transport used to reach the OLS service.
+     */
+    public OLSClient(AbstractOLSWsConfig config, OlsTransport transport) {
         this.config = config;
         this.mapper = new ObjectMapper()
                 .configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
-
-//        this.restTemplate = new RestTemplate(getClientHttpRequestFactory());
+        this.transport = transport;
+        this.executor = newWorkerExecutor(config != null ? config.getExecutorMode() : ExecutorMode.PLATFORM);
+        this.termCache = newTermCache(config);
+        this.scheduler = newScheduler();
+        this.termBatcher = newTermBatcher(config);
         this.searchPageSize = Constants.SEARCH_PAGE_SIZE;
         this.searchPageNum = -1;
     }
 
-//    private ClientHttpRequestFactory getClientHttpRequestFactory() {
-//        HttpComponentsClientHttpRequestFactory clientHttpRequestFactory = new HttpComponentsClientHttpRequestFactory();
-//        clientHttpRequestFactory.setConnectTimeout(TIME_OUT);
-//        return clientHttpRequestFactory;
-//    }
-
-
     public AbstractOLSWsConfig getConfig() {
         return config;
     }
 
+    /**
+     * Change the configuration of the client. If the client manages its own connection pool,
+     * the pool is rebuilt with the new timeouts and limits and the previous one is closed.
+     * The term cache is recreated empty with the new size and time to live and the list of
+     * ontologies is downloaded again on the next lookup.
+     *
+     * @param config configuration to use.
+     */
     public void setConfig(AbstractOLSWsConfig config) {
         this.config = config;
+        this.termCache = newTermCache(config);
+        this.ontologyRegistry.invalidate();
+        this.ontologyAnnotations.clear();
+        this.termBatcher = newTermBatcher(config);
+        this.hostPermits.clear();
+        if (ownsTransport) {
+            OlsTransport previous = this.transport;
+            this.transport = new PooledHttpTransport(config);
+            closeQuietly(previous);
+        }
+    }
+
+    public OlsTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * @return executor running the concurrent requests of this client.
+     */
+    ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Release the connections held by the transport of this client and stop its worker threads.
+     */
+    @Override
+    public void close() {
+        TermBatcher batcher = termBatcher;
+        if (batcher != null)
+            batcher.close();
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+        closeQuietly(transport);
+    }
+
+    /**
+     * Statistics of the term cache used by {@link #getTermById(Identifier, String)} and
+     * {@link #retrieveTerm(String, String)}.
+     *
+     * @return the cache statistics, null if the cache is disabled in the configuration
+     */
+    public CacheStats getTermCacheStats() {
+        TinyLfuCache<String, Optional<Term>> cache = termCache;
+        return cache != null ? cache.stats() : null;
+    }
+
+    /**
+     * Remove all the terms from the term cache, the next lookups go to the OLS service.
+     */
+    public void invalidateTermCache() {
+        TinyLfuCache<String, Optional<Term>> cache = termCache;
+        if (cache != null)
+            cache.invalidateAll();
+    }
+
+    private static TinyLfuCache<String, Optional<Term>> newTermCache(AbstractOLSWsConfig config) {
+        if (config == null || config.getTermCacheSize() <= 0)
+            return null;
+        return new TinyLfuCache<>(config.getTermCacheSize(), config.getTermCacheTtl());
+    }
+
+    private static String termCacheKey(String kind, String id, String ontologyId) {
+        return kind + '|' + id + '|' + (ontologyId != null ? ontologyId.toLowerCase() : "");
+    }
+
+    /*
+     * Look up a term in the cache or load it. Terms that are not found are remembered for the
+     * (usually shorter) negative time to live, so repeated lookups of unknown ids do not hit OLS.
+     */
+    private Term cachedTerm(String key, Supplier<Term> loader) {
+        TinyLfuCache<String, Optional<Term>> cache = termCache;
+        Optional<Term> cached = cache != null ? cache.get(key) : null;
+        if (cached != null)
+            return cached.orElse(null);
+        return loadTerm(cache, key, loader);
+    }
+
+    private Term loadTerm(TinyLfuCache<String, Optional<Term>> cache, String key, Supplier<Term> loader) {
+        Term term = loader.get();
+        if (cache == null)
+            return term;
+        if (term != null)
+            cache.put(key, Optional.of(term));
+        else if (config.getTermCacheNegativeTtl() > 0)
+            cache.putWithTtl(key, Optional.empty(), config.getTermCacheNegativeTtl());
+        return term;
+    }
+
+    private static ScheduledExecutorService newScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "ols-client-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    private TermBatcher newTermBatcher(AbstractOLSWsConfig config) {
+        if (config == null || config.getTermBatchWindow() <= 0)
+            return null;
+        return new TermBatcher(config.getTermBatchWindow(), config.getTermBatchMaxSize(),
+                this::searchTermsByIds, this::fetchRetrieveTerm, scheduler, executor);
+    }
+
+    /*
+     * Search a list of ids (OBO ids, short forms or IRIs) of an ontology with a single request.
+     * Every id is quoted, with its quotes and backslashes escaped, so the search backend reads it
+     * as a phrase, and the phrases are joined with OR.
+     */
+    private List<Term> searchTermsByIds(List<String> ids, String ontologyId) throws RestClientException {
+        String q = ids.stream()
+                .map(id -> '"' + id.replace("\\", "\\\\").replace("\"", "\\\"") + '"')
+                .collect(Collectors.joining(" OR "));
+        String query = String.format("q=%s&" + BATCH_QUERY_FIELD + "&" + BATCH_FIELD_LIST + "&rows=%s&start=0&ontology=%s&obsoletes=true",
+                q, Math.max(Constants.SEARCH_PAGE_SIZE, ids.size() * 2), ontologyId);
+        log.debug(query);
+        SearchQuery result = getForObject(encodeURL("/api/search", query), SearchQuery.class);
+        if (result == null || result.getResponse() == null || result.getResponse().getSearchResults() == null)
+            return Collections.emptyList();
+        return Arrays.stream(result.getResponse().getSearchResults()).map(SearchResult::toTerm).collect(Collectors.toList());
+    }
+
+    /*
+     * Virtual threads are created through reflection so the client still builds and runs on JDK 17.
+     */
+    private static ExecutorService newWorkerExecutor(ExecutorMode mode) {
+        if (mode == ExecutorMode.VIRTUAL) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                log.warn("Virtual threads are not available in this JVM, using platform threads");
+            }
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "ols-client-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            if (closeable != null)
+                closeable.close();
+        } catch (IOException e) {
+            log.warn("Error releasing OLS connections: " + e.getMessage());
+        }
     }
 
     /**
      * This function retrieve the term by the accession of the term in the ontogoly and the id of the ontology
-     * if the term is not found it, the NULL is returned.
+     * if the term is not found it, the NULL is returned. When the term cache is enabled the answer
+     * (including a term not found) is served from the cache until it expires.
      *
      * @param termId     Term ID in the ontology
      * @param ontologyId The ontology name
      * @return return the name of the Ontology term
      */
     public Term getTermById(Identifier termId, String ontologyId) throws RestClientException {
+        if (termId == null || termId.getIdentifier() == null || termId.getType() == null)
+            return null;
+        return cachedTerm(termCacheKey(termId.getType().name(), termId.getIdentifier(), ontologyId),
+                () -> fetchTermById(termId, ontologyId));
+    }
+
+    private Term fetchTermById(Identifier termId, String ontologyId) throws RestClientException {
         if (termId != null && termId.getIdentifier() != null) {
             if (termId.getType() == Identifier.IdentifierType.OBO)
                 return getTermByOBOId(termId.getIdentifier(), ontologyId);
@@ -144,6 +417,43 @@ public class OLSClient implements Client {
         return null;
     }
 
+    /**
+     * Retrieve many terms of an ontology at once. Duplicated identifiers are looked up once, the
+     * terms in the term cache are returned without contacting OLS and the rest are requested
+     * concurrently, at most {@link AbstractOLSWsConfig#getBatchLookupParallelism()} at a time.
+     *
+     * The returned map contains every requested identifier in the order of the input: identifiers
+     * that were not found in the ontology are mapped to null (the map contains the key).
+     *
+     * @param termIds    Term IDs in the ontology
+     * @param ontologyId The ontology name
+     * @return map from every identifier to its term, or to null if the term was not found
+     * @throws RestClientException if any of the lookups could not be completed.
+     */
+    public Map<Identifier, Term> getTermsByIds(Collection<Identifier> termIds, String ontologyId) throws RestClientException {
+        Map<Identifier, Term> terms = new LinkedHashMap<>();
+        List<Identifier> missing = new ArrayList<>();
+        TinyLfuCache<String, Optional<Term>> cache = termCache;
+        for (Identifier termId : new LinkedHashSet<>(termIds)) {
+            terms.put(termId, null);
+            if (termId == null || termId.getIdentifier() == null || termId.getType() == null)
+                continue;
+            Optional<Term> cached = cache != null ? cache.get(termCacheKey(termId.getType().name(), termId.getIdentifier(), ontologyId)) : null;
+            if (cached != null)
+                terms.put(termId, cached.orElse(null));
+            else
+                missing.add(termId);
+        }
+        List<Term> loaded = fetchConcurrently(missing.size(), config.getBatchLookupParallelism(), index -> {
+            Identifier termId = missing.get(index);
+            return loadTerm(cache, termCacheKey(termId.getType().name(), termId.getIdentifier(), ontologyId),
+                    () -> fetchTermById(termId, ontologyId));
+        });
+        for (int i = 0; i < missing.size(); i++)
+            terms.put(missing.get(i), loaded.get(i));
+        return terms;
+    }
+
     /**
      * Return a Term for an OBO Identifier and the ontology Identifier.
      *
@@ -249,11 +559,11 @@ public class OLSClient implements Client {
     public List<Ontology> getOntologies() throws RestClientException {
         OntologyQuery currentOntologyQuery = getOntologyQuery(0);
         List<Ontology> ontologies = new ArrayList<>();
-        ontologies.addAll(Arrays.asList(currentOntologyQuery.getOntolgoies()));
-        if (currentOntologyQuery != null) {
+        if (currentOntologyQuery != null && currentOntologyQuery.getOntolgoies() != null) {
+            ontologies.addAll(Arrays.asList(currentOntologyQuery.getOntolgoies()));
             if (currentOntologyQuery.getOntolgoies().length < currentOntologyQuery.getPage().getTotalElements()) {
-                for (int i = 1; i < currentOntologyQuery.getPage().getTotalElements() / currentOntologyQuery.getOntolgoies().length + 1; i++) {
-                    OntologyQuery ontologyQuery = getOntologyQuery(i);
+                int totalPages = getTotalPages(currentOntologyQuery, currentOntologyQuery.getOntolgoies().length);
+                for (OntologyQuery ontologyQuery : fetchPages(1, totalPages, this::getOntologyQuery)) {
                     if (ontologyQuery != null && ontologyQuery.getOntolgoies() != null)
                         ontologies.addAll(Arrays.asList(ontologyQuery.getOntolgoies()));
                 }
@@ -262,8 +572,33 @@ public class OLSClient implements Client {
         return ontologies;
     }
 
+    /**
+     * Find an ontology by its id. The list of ontologies is downloaded once and kept for the
+     * configured {@link AbstractOLSWsConfig#getOntologyRegistryTtl()}.
+     *
+     * @param id ontology id, i.e. efo
+     * @return the ontology, null if there is no ontology with that id
+     */
     public Ontology getOntologyFromId(String id) {
-        return getOntologies().stream().filter(ontology -> ontology.getId().equals(id)).findAny().orElse(null);
+        return ontologyRegistry.getById(id);
+    }
+
+    /**
+     * Find an ontology by its preferred prefix or, if no ontology uses it as preferred prefix,
+     * by its namespace. The case is ignored.
+     *
+     * @param prefix prefix of the ontology, i.e. EFO
+     * @return the ontology, null if no ontology uses that prefix
+     */
+    public Ontology getOntologyFromPrefix(String prefix) {
+        return ontologyRegistry.getByPrefix(prefix);
+    }
+
+    /**
+     * Download the list of ontologies used by the getOntologyFrom... methods again.
+     */
+    public void refreshOntologies() {
+        ontologyRegistry.refresh();
     }
 
     /**
@@ -277,50 +612,125 @@ public class OLSClient implements Client {
     }
 
     public Ontology getOntologyFromFilePath(URI filePath) {
-        List<Ontology> ontologyList = getOntologies();
-        for (Ontology ontology : ontologyList) {
-            String fileLocation = ontology.getConfig().getFileLocation();
-            log.debug(fileLocation);
-            if (fileLocation != null && fileLocation.equals(filePath.toString())) {
-                return ontology;
-            }
-        }
-        return null;
+        return filePath == null ? null : ontologyRegistry.getByFileLocation(filePath.toString());
     }
 
     /**
-     * Retrieve the List of Term for an specific Identifier.
+     * Retrieve the List of Term for an specific Identifier. Every term is returned once, even if it
+     * can be reached through several paths, ordered by distance.
      *
      * @param termId     Term Identifier
      * @param ontologyId Ontology Name
-     * @param distance   Distance to the child (1..n) where the distance is the step to the children.
+     * @param distance   Distance to the child (1..n) where the distance is the step to the children,
+     *                   {@link Integer#MAX_VALUE} or a negative value for all the descendants
+     *                   (see {@link #getAllTermChildren(Identifier, String)}).
      * @return list of Terms.
      * @throws RestClientException if there are problems connecting to the REST service.
      */
     public List<Term> getTermChildren(Identifier termId, String ontologyId, int distance) throws RestClientException {
-        List<Term> terms = new ArrayList<>();
+        if (isUnbounded(distance))
+            return getAllTermChildren(termId, ontologyId);
+        return new ArrayList<>(getTermChildrenWithDistance(termId, ontologyId, distance).keySet());
+    }
+
+    /**
+     * Retrieve all the descendants of a term. They are read from the paginated hierarchicalDescendants
+     * link of the term, whose pages are requested concurrently, instead of walking the hierarchy one
+     * level at a time. If the server does not provide the link, the hierarchicalChildren links are
+     * walked (the descendants link only follows is_a). The terms are returned in the order of the
+     * server and every term is returned once.
+     *
+     * @param termId     Term Identifier
+     * @param ontologyId Ontology Name
+     * @return list of Terms.
+     * @throws RestClientException if there are problems connecting to the REST service.
+     */
+    public List<Term> getAllTermChildren(Identifier termId, String ontologyId) throws RestClientException {
         Term term = getTermById(termId, ontologyId);
-        if (term != null && term.getLink() != null && term.getLink().getAllChildrenRef() != null) {
-            terms = getTermChildrenMap(term.getLink().getAllChildrenRef(), distance);
-        }
-        return terms;
+        if (term == null || term.getLink() == null)
+            return new ArrayList<>();
+        Href closure = term.getLink().getAllDescendantsRef();
+        if (closure == null || closure.getHref() == null)
+            return new ArrayList<>(traverseHierarchy(term, -1,
+                    child -> child.getLink() != null ? child.getLink().getAllChildrenRef() : null).keySet());
+        return getClosure(term, closure);
     }
 
     /**
-     * Retrieve the List of Term for an specific Identifier.
+     * Retrieve the children of a term up to a distance, with the minimum number of steps from the
+     * term to each of them. The hierarchy is walked level by level: the children of all the terms
+     * of a level are requested concurrently and a term reached again through another path is not
+     * expanded a second time. The distances are not known by the descendants endpoint, so an
+     * unbounded distance walks the whole hierarchy; use {@link #getAllTermChildren(Identifier, String)}
+     * when they are not needed.
      *
      * @param termId     Term Identifier
      * @param ontologyId Ontology Name
      * @param distance   Distance to the child (1..n) where the distance is the step to the children.
+     * @return map from every child term to its distance, ordered by distance.
+     * @throws RestClientException if there are problems connecting to the REST service.
+     */
+    public Map<Term, Integer> getTermChildrenWithDistance(Identifier termId, String ontologyId, int distance) throws RestClientException {
+        Term term = getTermById(termId, ontologyId);
+        if (term == null || term.getLink() == null)
+            return new LinkedHashMap<>();
+        return traverseHierarchy(term, distance, child -> child.getLink() != null ? child.getLink().getAllChildrenRef() : null);
+    }
+
+    /**
+     * Retrieve the List of Term for an specific Identifier. Every term is returned once, even if it
+     * can be reached through several paths, ordered by distance.
+     *
+     * @param termId     Term Identifier
+     * @param ontologyId Ontology Name
+     * @param distance   Distance to the parent (1..n) where the distance is the step to the parents,
+     *                   {@link Integer#MAX_VALUE} or a negative value for all the ancestors
+     *                   (see {@link #getAllTermParents(Identifier, String)}).
      * @return list of Terms.
      * @throws RestClientException if there are problems connecting to the REST service.
      */
     public List<Term> getTermParents(Identifier termId, String ontologyId, int distance) throws RestClientException {
-        List<Term> terms = new ArrayList<>();
+        if (isUnbounded(distance))
+            return getAllTermParents(termId, ontologyId);
+        return new ArrayList<>(getTermParentsWithDistance(termId, ontologyId, distance).keySet());
+    }
+
+    /**
+     * Retrieve all the ancestors of a term from its paginated hierarchicalAncestors link, walking the
+     * hierarchicalParents links if the server does not provide it, see
+     * {@link #getAllTermChildren(Identifier, String)}.
+     *
+     * @param termId     Term Identifier
+     * @param ontologyId Ontology Name
+     * @return list of Terms.
+     * @throws RestClientException if there are problems connecting to the REST service.
+     */
+    public List<Term> getAllTermParents(Identifier termId, String ontologyId) throws RestClientException {
         Term term = getTermById(termId, ontologyId);
-        if (term != null && term.getLink() != null && term.getLink().getAllParentsRef() != null)
-            terms = getTermParentsMap(term.getLink().getAllParentsRef(), distance);
-        return terms;
+        if (term == null || term.getLink() == null)
+            return new ArrayList<>();
+        Href closure = term.getLink().getAllAncestorsRef();
+        if (closure == null || closure.getHref() == null)
+            return new ArrayList<>(traverseHierarchy(term, -1,
+                    parent -> parent.getLink() != null ? parent.getLink().getAllParentsRef() : null).keySet());
+        return getClosure(term, closure);
+    }
+
+    /**
+     * Retrieve the parents of a term up to a distance, with the minimum number of steps from the
+     * term to each of them, see {@link #getTermChildrenWithDistance(Identifier, String, int)}.
+     *
+     * @param termId     Term Identifier
+     * @param ontologyId Ontology Name
+     * @param distance   Distance to the parent (1..n) where the distance is the step to the parents.
+     * @return map from every parent term to its distance, ordered by distance.
+     * @throws RestClientException if there are problems connecting to the REST service.
+     */
+    public Map<Term, Integer> getTermParentsWithDistance(Identifier termId, String ontologyId, int distance) throws RestClientException {
+        Term term = getTermById(termId, ontologyId);
+        if (term == null || term.getLink() == null)
+            return new LinkedHashMap<>();
+        return traverseHierarchy(term, distance, parent -> parent.getLink() != null ? parent.getLink().getAllParentsRef() : null);
     }
 
     /**
@@ -358,6 +768,20 @@ public class OLSClient implements Client {
         return termResults;
     }
 
+    /**
+     * Lazy version of {@link #searchTermById(String, String)}: the search result pages are requested
+     * while the stream is consumed.
+     *
+     * @param identifier partial ontology ID
+     * @param ontologyID ontology to search
+     * @return stream of the matching terms
+     */
+    public Stream<Term> streamSearchTermById(String identifier, String ontologyID) {
+        return PagedIterator.stream(() -> searchPage(0, start -> searchIdQuery(identifier, ontologyID, start)), executor)
+                .map(SearchResult::toTerm)
+                .filter(Objects::nonNull);
+    }
+
     private SearchQuery searchIdQuery(String identifier, String ontologyID, int page) throws RestClientException {
         String query = String.format("q=*%s*&" + getFieldList() + "&rows=%s&start=%s", identifier, Constants.SEARCH_PAGE_SIZE, page);
         if (ontologyID != null && !ontologyID.isEmpty())
@@ -439,14 +863,162 @@ public class OLSClient implements Client {
         return getAllOBOTermsFromOntology(ontologyID);
     }
 
+    /**
+     * The direct parents of every term of an ontology, read from the hierarchicalParent property of
+     * the OLS4 v2 classes of the ontology. One request is made per page of {@link Constants#TERM_PAGE_SIZE}
+     * classes and the pages are fetched concurrently, like {@link #getAllTermsFromOntology(String)}.
+     * Used with {@link #getAllTermsFromOntology(String)} to copy the hierarchy of an ontology.
+     *
+     * @param ontologyID Ontology reference
+     * @return the IRIs of the parents by term IRI, the terms without parents are not included.
+     * @throws RestClientException if there are problems connecting to the REST service.
+     */
+    public Map<String, List<String>> getHierarchicalParents(String ontologyID) throws RestClientException {
+        Map<String, List<String>> parents = new HashMap<>();
+        ClassQuery firstPage = getClassQuery(0, ontologyID);
+        if (firstPage == null)
+            return parents;
+        addHierarchicalParents(firstPage, parents);
+        for (ClassQuery classQuery : fetchPages(1, firstPage.getTotalPages(), page -> getClassQuery(page, ontologyID)))
+            addHierarchicalParents(classQuery, parents);
+        log.debug("Read the parents of {} terms with {} requests", firstPage.getTotalElements(), Math.max(1, firstPage.getTotalPages()));
+        return parents;
+    }
+
+    private static void addHierarchicalParents(ClassQuery classQuery, Map<String, List<String>> parents) {
+        if (classQuery == null || classQuery.getElements() == null)
+            return;
+        for (OntologyClass ontologyClass : classQuery.getElements())
+            if (ontologyClass.getIri() != null && !ontologyClass.getHierarchicalParents().isEmpty())
+                parents.put(ontologyClass.getIri(), ontologyClass.getHierarchicalParents());
+    }
+
+    private ClassQuery getClassQuery(int page, String ontologyID) {
+
+        String query = String.format("page=%s&size=%s",
+                page, Constants.TERM_PAGE_SIZE);
+
+        log.debug(query);
+
+        URI uri = encodeURL("/api/v2/ontologies/" + ontologyID + "/classes", query);
+        return getForObject(uri, ClassQuery.class);
+    }
+
+    /**
+     * @return the version of an ontology, or the date it was last updated in OLS when it has no version.
+     */
+    public String getOntologyVersion(Ontology ontology) {
+        if (ontology == null)
+            return null;
+        if (ontology.getConfig() != null && ontology.getConfig().getVersion() != null)
+            return ontology.getConfig().getVersion();
+        return ontology.getUpdatedDate();
+    }
+
+    /**
+     * Lazily stream all the terms of an ontology. Pages of {@link Constants#TERM_PAGE_SIZE} terms are
+     * requested while the stream is consumed, with one page read-ahead, so the memory used is
+     * proportional to the page size and not to the size of the ontology. Close the stream if it
+     * is not fully consumed to cancel the read-ahead request.
+     *
+     * @param ontologyID Ontology reference
+     * @return stream of the terms, in the order returned by OLS.
+     */
+    public Stream<Term> streamAllTerms(String ontologyID) {
+        return PagedIterator.stream(() -> termPage(0, page -> getTermQuery(page, ontologyID)), executor);
+    }
+
+    /**
+     * Lazily stream the root terms of an ontology, see {@link #streamAllTerms(String)}.
+     *
+     * @param ontologyID Ontology reference
+     * @return stream of the root terms.
+     */
+    public Stream<Term> streamRootTerms(String ontologyID) {
+        return PagedIterator.stream(() -> termPage(0, page -> getRootQuery(page, ontologyID)), executor);
+    }
+
+    /**
+     * Reactive version of {@link #getAllTermsFromOntology(String)}. Pages are only requested from OLS
+     * when the subscriber signals demand for more terms than the ones already fetched.
+     *
+     * @param ontologyID Ontology reference
+     * @return publisher of the terms, in the order returned by OLS.
+     */
+    public Flow.Publisher<Term> publishAllTerms(String ontologyID) {
+        return new PagedPublisher<>(() -> termPage(0, page -> getTermQuery(page, ontologyID)), executor);
+    }
+
+    /**
+     * Reactive version of {@link #getRootTerms(String)}, see {@link #publishAllTerms(String)}.
+     *
+     * @param ontologyID Ontology reference
+     * @return publisher of the root terms.
+     */
+    public Flow.Publisher<Term> publishRootTerms(String ontologyID) {
+        return new PagedPublisher<>(() -> termPage(0, page -> getRootQuery(page, ontologyID)), executor);
+    }
+
+    /**
+     * Publish the terms of a paginated term link (e.g. the hierarchicalChildren link of a Term),
+     * following the next links of the result only when the subscriber signals demand.
+     *
+     * @param href link to a list of terms
+     * @return publisher of the linked terms.
+     */
+    public Flow.Publisher<Term> publishTerms(Href href) {
+        return new PagedPublisher<>(() -> hrefPage(href), executor);
+    }
+
+    private ResultPage<Term> hrefPage(Href href) throws RestClientException {
+        if (href == null || href.getHref() == null)
+            return ResultPage.empty();
+        TermQuery termQuery = getForObject(href.getHref(), TermQuery.class);
+        if (termQuery == null)
+            return ResultPage.empty();
+        Href next = termQuery.getLink() != null ? termQuery.getLink().next() : null;
+        List<Term> terms = termQuery.getTerms() != null ? Arrays.asList(termQuery.getTerms()) : null;
+        return new ResultPage<>(terms, next != null ? () -> hrefPage(next) : null);
+    }
+
+    private ResultPage<Term> termPage(int page, IntFunction<TermQuery> pageFetcher) throws RestClientException {
+        TermQuery termQuery = pageFetcher.apply(page);
+        if (termQuery == null || termQuery.getTerms() == null || termQuery.getTerms().length == 0)
+            return ResultPage.empty();
+        boolean hasNext = page + 1 < getTotalPages(termQuery, termQuery.getTerms().length);
+        return new ResultPage<>(Arrays.asList(termQuery.getTerms()), hasNext ? () -> termPage(page + 1, pageFetcher) : null);
+    }
+
+    private ResultPage<SearchResult> searchPage(int start, IntFunction<SearchQuery> pageFetcher) throws RestClientException {
+        SearchQuery searchQuery = pageFetcher.apply(start);
+        if (searchQuery == null || searchQuery.getResponse() == null || searchQuery.getResponse().getSearchResults() == null)
+            return ResultPage.empty();
+        SearchResult[] results = searchQuery.getResponse().getSearchResults();
+        int nextStart = start + results.length;
+        boolean hasNext = results.length > 0 && nextStart < searchQuery.getResponse().getNumFound();
+        return new ResultPage<>(Arrays.asList(results), hasNext ? () -> searchPage(nextStart, pageFetcher) : null);
+    }
+
+    /**
+     * Retrieve all the terms of an ontology. The first page tells how many pages the ontology has,
+     * the remaining ones are then requested concurrently (see {@link AbstractOLSWsConfig#getPageFetchParallelism()})
+     * and appended in page order.
+     */
     private List<Term> getAllOBOTermsFromOntology(String ontologyID) throws RestClientException {
         TermQuery currentTermQuery = getTermQuery(0, ontologyID);
+        return collectTermPages(currentTermQuery, page -> getTermQuery(page, ontologyID));
+    }
+
+    private List<Term> collectTermPages(TermQuery currentTermQuery, IntFunction<TermQuery> pageFetcher) throws RestClientException {
         List<Term> terms = new ArrayList<>();
         if (currentTermQuery != null && currentTermQuery.getTerms() != null) {
+            Page page = currentTermQuery.getPage();
+            if (page != null)
+                terms = new ArrayList<>(page.getTotalElements());
             terms.addAll(Arrays.asList(currentTermQuery.getTerms()));
-            if (currentTermQuery.getTerms().length < currentTermQuery.getPage().getTotalElements()) {
-                for (int i = 1; i < currentTermQuery.getPage().getTotalElements() / currentTermQuery.getTerms().length + 1; i++) {
-                    TermQuery termQuery = getTermQuery(i, ontologyID);
+            if (page != null && currentTermQuery.getTerms().length < page.getTotalElements()) {
+                int totalPages = getTotalPages(currentTermQuery, currentTermQuery.getTerms().length);
+                for (TermQuery termQuery : fetchPages(1, totalPages, pageFetcher)) {
                     if (termQuery != null && termQuery.getTerms() != null)
                         terms.addAll(Arrays.asList(termQuery.getTerms()));
                 }
@@ -490,18 +1062,7 @@ public class OLSClient implements Client {
 
     private List<Term> getAllRootTerns(String ontologyID) {
         TermQuery currentTermQuery = getRootQuery(0, ontologyID);
-        List<Term> terms = new ArrayList<>();
-        if (currentTermQuery != null && currentTermQuery.getTerms() != null) {
-            terms.addAll(Arrays.asList(currentTermQuery.getTerms()));
-            if (currentTermQuery.getTerms().length < currentTermQuery.getPage().getTotalElements()) {
-                for (int i = 1; i < currentTermQuery.getPage().getTotalElements() / currentTermQuery.getTerms().length + 1; i++) {
-                    TermQuery termQuery = getRootQuery(i, ontologyID);
-                    if (termQuery != null && termQuery.getTerms() != null)
-                        terms.addAll(Arrays.asList(termQuery.getTerms()));
-                }
-            }
-        }
-        return terms;
+        return collectTermPages(currentTermQuery, page -> getRootQuery(page, ontologyID));
     }
 
     public List<Term> getTermsByName(String partialName, String ontologyID, boolean reverseKeyOrder) {
@@ -610,28 +1171,22 @@ public class OLSClient implements Client {
     }
 
     public List<Term> getExactTermsByIriString(String iri) {
-        String customQueryField = new QueryFields.QueryFieldBuilder()
-                .setIri()
-                .build()
-                .toString();
-        this.setQueryField(customQueryField);
-        List<Term> terms = getExactTermsByName(iri, null);
-        //restore olsClient search to it's default query field and field list
-        this.setQueryField(DEFAULT_QUERY_FIELD);
-        return terms;
+        return searchByIri(iri, false);
     }
 
     public List<Term> getExactTermsByIriStringWithObsolete(String iri) {
-        String customQueryField = new QueryFields.QueryFieldBuilder()
-                .setIri()
-                .build()
-                .toString();
-        this.setQueryField(customQueryField);
-        List<Term> terms = getExactTermsByNameWithObsolete(iri, null);
-        //restore olsClient search to it's default query field and field list
-        this.setQueryField(DEFAULT_QUERY_FIELD);
-        return terms;
-    } //getExactTermsByNameWithObsolete
+        return searchByIri(iri, true);
+    }
+
+    private List<Term> searchByIri(String iri, boolean obsolete) {
+        if (iri == null || iri.isEmpty())
+            return null;
+        return search(iri, null, searchOptions()
+                .setQueryFields(IRI_QUERY_FIELD)
+                .setExact(true)
+                .setObsolete(obsolete)
+                .build());
+    }
 
 
     private List<Term> searchByPartialTerm(String partialName, String ontology, String childrenOf) throws RestClientException {
@@ -660,28 +1215,39 @@ public class OLSClient implements Client {
      * @throws RestClientException Rest Exception
      */
     private List<Term> searchByTerm(String termToSearch, String ontology, boolean exact, String childrenOf, boolean obsolete) throws RestClientException {
-        List<Term> termResults = new ArrayList<>();
-        List<SearchResult> terms = new ArrayList<>();
-
-        int pageSize = getSearchPageSize();
-        if (pageSize <= 0) {
-            pageSize = Constants.SEARCH_PAGE_SIZE;
-        }
+        return search(termToSearch, ontology, searchOptions()
+                .setExact(exact)
+                .setChildrenOf(childrenOf)
+                .setObsolete(obsolete)
+                .build());
+    }
 
-        SearchQuery currentTermQuery = getSearchQuery(0, termToSearch, ontology, exact, childrenOf, obsolete, pageSize);
+    /**
+     * Searches for terms in the OLS with the given options. The options only apply to this
+     * search, see {@link #searchOptions()}.
+     *
+     * @param termToSearch the name of the term (partial or exact) that we want to find
+     * @param ontology     optional ontology to search the term in, null if not specified
+     * @param options      options of the search
+     * @return a list of Terms found
+     * @throws RestClientException Rest Exception
+     */
+    public List<Term> search(String termToSearch, String ontology, SearchOptions options) throws RestClientException {
+        List<SearchResult> terms = new ArrayList<>();
+        int pageSize = pageSize(options);
 
-        int pageNum = getSearchPageNum();
-        if (pageNum < 0) {
-            pageNum = currentTermQuery.getResponse().getNumFound() / pageSize;
-        }
+        SearchQuery currentTermQuery = getSearchQuery(0, termToSearch, ontology, options);
 
         if (currentTermQuery != null && currentTermQuery.getResponse() != null && currentTermQuery.getResponse().getSearchResults() != null) {
+            int pageNum = options.getPageLimit() < 0
+                    ? currentTermQuery.getResponse().getNumFound() / pageSize
+                    : options.getPageLimit() - 1;
             terms.addAll(Arrays.asList(currentTermQuery.getResponse().getSearchResults()));
             if (currentTermQuery.getResponse().getSearchResults().length < currentTermQuery.getResponse().getNumFound()) {
                 int start = 0;
                 for (int i = 0; i < pageNum; i++) {
                     start = start + pageSize;
-                    SearchQuery termQuery = getSearchQuery(start, termToSearch, ontology, exact, childrenOf, obsolete, pageSize);
+                    SearchQuery termQuery = getSearchQuery(start, termToSearch, ontology, options);
                     if (termQuery != null && termQuery.getResponse() != null && termQuery.getResponse().getSearchResults() != null) {
                         if (termQuery.getResponse().getSearchResults().length == 0) {
                             break;
@@ -696,7 +1262,81 @@ public class OLSClient implements Client {
     }
 
     /**
-     * Retrieves a specific term given its iri as a String and the ontology it belongs to
+     * Lazily stream the terms whose label or synonyms contain the given name, see
+     * {@link #streamSearch(String, String, boolean, String, boolean)}.
+     *
+     * @param partialName Substring to lookup in the name term
+     * @param ontologyID  optional ontology to search the term in, null if not specified
+     * @return stream of the terms found
+     */
+    public Stream<Term> streamSearch(String partialName, String ontologyID) {
+        return streamSearch(partialName, ontologyID, false, null, false);
+    }
+
+    /**
+     * Lazy version of the search: result pages of {@link #getSearchPageSize()} rows are requested
+     * while the stream is consumed, with one page read-ahead. Use {@link Stream#limit(long)} to
+     * bound the number of results instead of {@link #setSearchPageNum(int)}.
+     *
+     * @param termToSearch the name of the term (partial or exact) that we want to find
+     * @param ontology     optional ontology to search the term in, null if not specified
+     * @param exact        true if we want an exact string match
+     * @param childrenOf   will restrict a search to children of a given term.
+     * @param obsolete     true if you want to look into obsolete terms
+     * @return stream of the terms found
+     */
+    public Stream<Term> streamSearch(String termToSearch, String ontology, boolean exact, String childrenOf, boolean obsolete) {
+        return streamSearch(termToSearch, ontology, searchOptions()
+                .setExact(exact)
+                .setChildrenOf(childrenOf)
+                .setObsolete(obsolete)
+                .build());
+    }
+
+    /**
+     * Lazy version of {@link #search(String, String, SearchOptions)}, the page limit of the options
+     * is ignored.
+     *
+     * @param termToSearch the name of the term (partial or exact) that we want to find
+     * @param ontology     optional ontology to search the term in, null if not specified
+     * @param options      options of the search
+     * @return stream of the terms found
+     */
+    public Stream<Term> streamSearch(String termToSearch, String ontology, SearchOptions options) {
+        return PagedIterator.stream(() -> searchPage(0, start -> getSearchQuery(start, termToSearch, ontology, options)), executor)
+                .map(SearchResult::toTerm)
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * Reactive version of the search. Result pages of {@link #getSearchPageSize()} rows are only
+     * requested when the subscriber signals demand for more results than the ones already fetched.
+     *
+     * @param termToSearch the name of the term (partial or exact) that we want to find
+     * @param ontology     optional ontology to search the term in, null if not specified
+     * @param exact        true if we want an exact string match
+     * @param childrenOf   will restrict a search to children of a given term.
+     * @param obsolete     true if you want to look into obsolete terms
+     * @return publisher of the search results
+     */
+    public Flow.Publisher<SearchResult> publishSearch(String termToSearch, String ontology, boolean exact, String childrenOf, boolean obsolete) {
+        SearchOptions options = searchOptions()
+                .setExact(exact)
+                .setChildrenOf(childrenOf)
+                .setObsolete(obsolete)
+                .build();
+        return new PagedPublisher<>(() -> searchPage(0, start -> getSearchQuery(start, termToSearch, ontology, options)), executor);
+    }
+
+    /**
+     * Retrieves a specific term given its iri as a String and the ontology it belongs to. The term
+     * is built from a search result: it has no links, synonyms or cross references.
+     *
+     * With the term batching enabled ({@link AbstractOLSWsConfig#getTermBatchWindow()}) concurrent
+     * calls for the same ontology are answered together by one /api/search request. The ids missing
+     * from the search response are retrieved one by one; the terms found by the search have no
+     * annotations, definition citations or replacement terms. {@link #isObsolete(String, String)} and
+     * {@link #getReplacedBy(String, String)} are never batched, as they need the replacement terms.
      *
      * @param id       the term id, whether it is obo, short or iri i.e. http://www.ebi.ac.uk/efo/EFO_0000635, EFO_0000635 or EFO:0000635
      * @param ontology the ontology the term belongs to, i.e. efo
@@ -704,6 +1344,23 @@ public class OLSClient implements Client {
      * @throws RestClientException Rest Exception
      */
     public Term retrieveTerm(String id, String ontology) throws RestClientException {
+        TermBatcher batcher = termBatcher;
+        if (batcher != null && id != null && ontology != null && !ontology.isEmpty())
+            return cachedTerm(termCacheKey("BATCH", id, ontology), () -> {
+                Term term = batcher.lookup(id, ontology);
+                return term == null || term.getOntologyName() == null || term.getOntologyName().equalsIgnoreCase(ontology) ? term : null;
+            });
+        return retrieveCompleteTerm(id, ontology);
+    }
+
+    /*
+     * retrieveTerm without the batching, the term keeps its replacement term and annotations.
+     */
+    private Term retrieveCompleteTerm(String id, String ontology) throws RestClientException {
+        return cachedTerm(termCacheKey("RETRIEVE", id, ontology), () -> fetchRetrieveTerm(id, ontology));
+    }
+
+    private Term fetchRetrieveTerm(String id, String ontology) throws RestClientException {
         RetrieveTermQuery currentTermQuery = getRetrieveQuery(id, ontology);
 
         List<SearchResult> terms = new ArrayList<>();
@@ -755,7 +1412,7 @@ public class OLSClient implements Client {
         if (term == null || term.getIri() == null) {
             return false;
         }
-        Term obsoleteTerm = retrieveTerm(term.getIri().getIdentifier(), term.getOntologyName());
+        Term obsoleteTerm = retrieveCompleteTerm(term.getIri().getIdentifier(), term.getOntologyName());
         return obsoleteTerm != null && obsoleteTerm instanceof ObsoleteTerm;
     }
 
@@ -769,12 +1426,12 @@ public class OLSClient implements Client {
      */
     public Term getReplacedBy(String termId, String ontology) {
         if (isObsolete(termId, ontology)) {
-            Term term = retrieveTerm(termId, ontology);
+            Term term = retrieveCompleteTerm(termId, ontology);
             String termReplacedBy = ((ObsoleteTerm) term).getTermReplacedBy();
             if (termReplacedBy == null || termReplacedBy.isEmpty()) {
                 return null;
             }
-            return retrieveTerm(termReplacedBy, term.getOntologyName());
+            return retrieveCompleteTerm(termReplacedBy, term.getOntologyName());
         }
         return null;
     }
@@ -795,7 +1452,7 @@ public class OLSClient implements Client {
         if (termReplacedBy == null || termReplacedBy.isEmpty()) {
             return null;
         }
-        return retrieveTerm(termReplacedBy.trim(), term.getOntologyName());
+        return retrieveCompleteTerm(termReplacedBy.trim(), term.getOntologyName());
     }
 
     private Term searchByExactTerm(String exactName, String ontologyId) throws RestClientException {
@@ -821,25 +1478,44 @@ public class OLSClient implements Client {
      * @throws RestClientException RestClient Exception
      */
     public SearchQuery getSearchQuery(int page, String name, String ontology, boolean exactMatch, String childrenOf, boolean obsolete, int size) throws RestClientException {
+        return getSearchQuery(page, name, ontology, searchOptions()
+                .setExact(exactMatch)
+                .setChildrenOf(childrenOf)
+                .setObsolete(obsolete)
+                .setPageSize(size)
+                .build());
+    }
+
+    /**
+     * Request one page of search results.
+     *
+     * @param start   index of the first result of the page
+     * @param name    the name of the term (partial or exact) that we want to find
+     * @param ontology optional ontology to search the term in, null if not specified
+     * @param options options of the search
+     * @return the page of results
+     * @throws RestClientException RestClient Exception
+     */
+    public SearchQuery getSearchQuery(int start, String name, String ontology, SearchOptions options) throws RestClientException {
         String query;
 
         query = String.format("q=%s&" +
-                        this.getQueryField()
+                        (options.getQueryFields() != null ? options.getQueryFields() : DEFAULT_QUERY_FIELD)
                         + "&rows=%s&start=%s&"
-                        + this.getFieldList(),
-                name, size, page);
+                        + (options.getFieldList() != null ? options.getFieldList() : DEFAULT_FIELD_LIST),
+                name, pageSize(options), start);
 
         if (ontology != null && !ontology.isEmpty())
             query += "&ontology=" + ontology;
 
-        if (exactMatch) {
+        if (options.isExact()) {
             query += "&exact=true";
         }
 
-        if (childrenOf != null && !childrenOf.isEmpty())
-            query += "&childrenOf=" + childrenOf;
+        if (options.getChildrenOf() != null && !options.getChildrenOf().isEmpty())
+            query += "&childrenOf=" + options.getChildrenOf();
 
-        if (obsolete)
+        if (options.isObsolete())
             query += "&obsoletes=true";
 
         log.debug(query);
@@ -848,6 +1524,10 @@ public class OLSClient implements Client {
     }
 
 
+    private static int pageSize(SearchOptions options) {
+        return options.getPageSize() > 0 ? options.getPageSize() : Constants.SEARCH_PAGE_SIZE;
+    }
+
     private RetrieveTermQuery getRetrieveQuery(String id, String ontology) throws RestClientException {
 
         if (ontology == null || ontology.isEmpty()) {
@@ -898,65 +1578,174 @@ public class OLSClient implements Client {
     }
 
 
-    private List<Term> getTermChildrenMap(Href childrenHRef, int distance) {
-        List<Term> children = new ArrayList<>();
-        if (distance == 0)
-            return Collections.emptyList();
-        List<Term> childTerms = getTermChildren(childrenHRef, distance);
-        children.addAll(childTerms);
-        return children;
+    /**
+     * Breadth-first walk of the hierarchy from a term. The links of every level are requested
+     * concurrently (at most {@link AbstractOLSWsConfig#getBatchLookupParallelism()} at a time) and
+     * the terms already visited, compared by IRI, are neither returned nor expanded again.
+     *
+     * @param start    term the walk starts from, not included in the result
+     * @param distance number of levels to walk, negative for no limit
+     * @param next     link to the next level (children or parents) of a term
+     * @return the terms found with their distance to the start term, ordered by distance.
+     */
+    private Map<Term, Integer> traverseHierarchy(Term start, int distance, Function<Term, Href> next) throws RestClientException {
+        Map<Term, Integer> found = new LinkedHashMap<>();
+        Set<String> visited = new HashSet<>();
+        visited.add(hierarchyKey(start));
+        List<Href> frontier = new ArrayList<>();
+        if (next.apply(start) != null)
+            frontier.add(next.apply(start));
+
+        for (int level = 1; (distance < 0 || level <= distance) && !frontier.isEmpty(); level++) {
+            List<Href> levelLinks = frontier;
+            List<List<Term>> levelTerms = fetchConcurrently(levelLinks.size(), config.getBatchLookupParallelism(),
+                    index -> getTermQuery(levelLinks.get(index)));
+            frontier = new ArrayList<>();
+            for (List<Term> terms : levelTerms) {
+                for (Term term : terms) {
+                    if (term == null || !visited.add(hierarchyKey(term)))
+                        continue;
+                    found.put(term, level);
+                    Href link = next.apply(term);
+                    if (link != null && link.getHref() != null)
+                        frontier.add(link);
+                }
+            }
+        }
+        return found;
     }
 
-    private List<Term> getTermParentsMap(Href parentsHRef, int distance) {
-        List<Term> parents = new ArrayList<>();
-        if (distance == 0)
-            return Collections.emptyList();
-        List<Term> parentTerms = getTermParents(parentsHRef, distance);
-        parents.addAll(parentTerms);
-        return parents;
+    private static boolean isUnbounded(int distance) {
+        return distance < 0 || distance == Integer.MAX_VALUE;
     }
 
-    private List<Term> getTermChildren(Href hrefChildren, int distance) {
-        if (distance == 0)
-            return new ArrayList<>();
-        List<Term> childTerms = new ArrayList<>(getTermQuery(hrefChildren));
-        distance--;
-        List<Term> currentChild = new ArrayList<>();
-        for (Term child : childTerms)
-            currentChild.addAll(getTermChildren(child.getLink().getAllChildrenRef(), distance));
-        childTerms.addAll(currentChild);
-        return childTerms;
+    /**
+     * Read a closure link (all the ancestors or descendants of a term), without the term itself and
+     * without duplicates.
+     */
+    private List<Term> getClosure(Term start, Href closure) throws RestClientException {
+        Set<String> visited = new HashSet<>();
+        visited.add(hierarchyKey(start));
+        List<Term> terms = new ArrayList<>();
+        for (Term term : getTermPagesConcurrently(withPageSize(closure.getHref(), Constants.TERM_PAGE_SIZE))) {
+            if (term != null && visited.add(hierarchyKey(term)))
+                terms.add(term);
+        }
+        return terms;
     }
 
-    private List<Term> getTermParents(Href hrefParents, int distance) {
-        if (distance == 0)
+    /**
+     * Retrieve all the terms of a paginated term link. Once the first page tells how many pages there
+     * are, the others are requested concurrently (see {@link AbstractOLSWsConfig#getPageFetchParallelism()})
+     * from the page number of its next link; a link without page number is followed page by page.
+     */
+    private List<Term> getTermPagesConcurrently(String href) throws RestClientException {
+        TermQuery firstPage = getForObject(href, TermQuery.class);
+        if (firstPage == null)
             return new ArrayList<>();
-        List<Term> parentTerms = new ArrayList<>();
-        parentTerms.addAll(getTermQuery(hrefParents));
-        distance--;
-        List<Term> currentParent = new ArrayList<>();
-        for (Term parent : parentTerms)
-            currentParent.addAll(getTermParents(parent.getLink().getAllParentsRef(), distance));
-        parentTerms.addAll(currentParent);
-        return parentTerms;
+        Href next = firstPage.getLink() != null ? firstPage.getLink().next() : null;
+        if (next == null || next.getHref() == null || firstPage.getPage() == null
+                || withPageNumber(next.getHref(), 1) == null)
+            return followTermPages(firstPage);
+        String template = next.getHref();
+        return collectTermPages(firstPage, page -> getForObject(withPageNumber(template, page), TermQuery.class));
+    }
+
+    /**
+     * @return the link with a page size parameter, unchanged if it already has one.
+     */
+    private static String withPageSize(String href, int size) {
+        if (href.matches(".*[?&]size=.*"))
+            return href;
+        return href + (href.contains("?") ? "&" : "?") + "size=" + size;
     }
 
+    private static String hierarchyKey(Term term) {
+        if (term.getIri() != null && term.getIri().getIdentifier() != null)
+            return term.getIri().getIdentifier();
+        if (term.getTermOBOId() != null && term.getTermOBOId().getIdentifier() != null)
+            return term.getTermOBOId().getIdentifier();
+        return String.valueOf(System.identityHashCode(term));
+    }
+
+    /**
+     * Retrieve all the terms of a paginated term link by following its next links. The walk is
+     * iterative and pipelined: while the next page is downloaded and deserialized, the page after it
+     * is already requested (its link is derived from the page number when the total number of pages
+     * is known). The terms of every page are appended to a single list.
+     *
+     * @param href link to a list of terms
+     * @return all the terms of the link
+     * @throws RestClientException if there are problems connecting to the REST service.
+     */
     private List<Term> getTermQuery(Href href) throws RestClientException {
-        if (href == null)
+        if (href == null || href.getHref() == null)
             return new ArrayList<>();
-        List<Term> terms = new ArrayList<>();
-        String query = href.getHref();
-        TermQuery termQuery = getForObject(query, TermQuery.class);
-        if (termQuery != null && termQuery.getTerms() != null) {
-            terms.addAll(Arrays.asList(termQuery.getTerms()));
-        }
-        if (termQuery != null && termQuery.getLink() != null && termQuery.getLink().next() != null)
-            terms.addAll(getTermQuery(termQuery.getLink().next()));
+        TermQuery termQuery = getForObject(href.getHref(), TermQuery.class);
+        if (termQuery == null)
+            return new ArrayList<>();
+        return followTermPages(termQuery);
+    }
+
+    /**
+     * Follow the next links from the first page of a paginated term link, see {@link #getTermQuery(Href)}.
+     */
+    private List<Term> followTermPages(TermQuery termQuery) throws RestClientException {
+        Page pageInfo = termQuery.getPage();
+        List<Term> terms = new ArrayList<>(pageInfo != null ? pageInfo.getTotalElements() : 16);
+        int totalPages = pageInfo != null ? pageInfo.getTotalPages() : 0;
 
+        String prefetchedHref = null;
+        Future<TermQuery> prefetched = null;
+        try {
+            while (true) {
+                if (termQuery.getTerms() != null)
+                    Collections.addAll(terms, termQuery.getTerms());
+                Href next = termQuery.getLink() != null ? termQuery.getLink().next() : null;
+                if (next == null || next.getHref() == null)
+                    break;
+
+                Future<TermQuery> nextQuery;
+                if (next.getHref().equals(prefetchedHref)) {
+                    nextQuery = prefetched;
+                } else {
+                    if (prefetched != null)
+                        prefetched.cancel(false);
+                    nextQuery = executor.submit(() -> getForObject(next.getHref(), TermQuery.class));
+                }
+
+                // request the page after the next one while the next one is being read
+                int pageNumber = termQuery.getPage() != null ? termQuery.getPage().getNumber() : -1;
+                prefetchedHref = pageNumber >= 0 && pageNumber + 2 < totalPages
+                        ? withPageNumber(next.getHref(), pageNumber + 2) : null;
+                if (prefetchedHref != null) {
+                    String afterNext = prefetchedHref;
+                    prefetched = executor.submit(() -> getForObject(afterNext, TermQuery.class));
+                } else {
+                    prefetched = null;
+                }
 
+                termQuery = await(nextQuery);
+                if (termQuery == null)
+                    break;
+            }
+        } finally {
+            if (prefetched != null)
+                prefetched.cancel(false);
+        }
         return terms;
     }
 
+    /**
+     * @return the link with its page parameter replaced, null if the link has no page parameter.
+     */
+    private static String withPageNumber(String href, int page) {
+        Matcher matcher = PAGE_PARAMETER.matcher(href);
+        if (!matcher.find())
+            return null;
+        return href.substring(0, matcher.start(2)) + page + href.substring(matcher.end(2));
+    }
+
     /**
      * This method checks if a term is obsolete or not.
      *
@@ -966,7 +1755,7 @@ public class OLSClient implements Client {
      * return null, also if the value is not found.
      */
     public Boolean isObsolete(String termId, String ontologyID) throws RestClientException {
-        Term term = retrieveTerm(termId, ontologyID);
+        Term term = retrieveCompleteTerm(termId, ontologyID);
         return isObsolete(term);
     }
 
@@ -975,24 +1764,94 @@ public class OLSClient implements Client {
         return term != null;
     }
 
+    /**
+     * The terms of an ontology with a value of an annotation, the case and blanks of the value are
+     * ignored, see {@link #getAnnotationValueIndex(String)}.
+     */
     public List<Term> getTermsByAnnotationData(String ontologyID, String annotationType, String strValue) {
-        return Collections.emptyList();
+        if (ontologyID == null || ontologyID.isEmpty() || strValue == null || strValue.isEmpty())
+            return Collections.emptyList();
+        return getAnnotationValueIndex(ontologyID).getTerms(annotationType, strValue);
     }
 
+    /**
+     * The terms of an ontology with a value of an annotation starting with a prefix, for example the
+     * terms of PSI-MOD with a database_cross_reference starting with "RESID:". The case and blanks
+     * of the prefix are ignored, see {@link #getAnnotationValueIndex(String)}.
+     *
+     * @param ontologyID     Ontology reference
+     * @param annotationType the name of the annotation
+     * @param prefix         beginning of the value
+     * @return the matching terms, in the order of the ontology.
+     * @throws RestClientException if there are problems connecting to the REST service.
+     */
+    public List<Term> getTermsByAnnotationDataPrefix(String ontologyID, String annotationType, String prefix) throws RestClientException {
+        if (ontologyID == null || ontologyID.isEmpty() || prefix == null || prefix.isEmpty())
+            return Collections.emptyList();
+        return getAnnotationValueIndex(ontologyID).getTermsByPrefix(annotationType, prefix);
+    }
+
+    /**
+     * The annotation values of the current version of an ontology, read from the same copy of the
+     * terms as {@link #getNumericAnnotationIndex(String)}.
+     *
+     * @param ontologyID Ontology reference
+     * @return the index, empty if the ontology id is null or empty.
+     * @throws RestClientException if there are problems connecting to the REST service.
+     */
+    public AnnotationValueIndex getAnnotationValueIndex(String ontologyID) throws RestClientException {
+        if (ontologyID == null || ontologyID.trim().isEmpty())
+            return AnnotationValueIndex.build("", null, Collections.emptyList());
+        return ontologyAnnotations(ontologyID).getAnnotationValueIndex();
+    }
+
+    /**
+     * The terms of an ontology with a first value of an annotation between the two values, see
+     * {@link #getNumericAnnotationIndex(String)}.
+     */
     public List<Term> getTermsByAnnotationData(String ontologyID, String annotationType, double fromDblValue, double toDblValue) {
-        List<Term> terms = getAllOBOTermsFromOntology(ontologyID);
-        List<Term> termResult = new ArrayList<>();
-        for (Term term : terms) {
-            if (term != null && term.getAnnotation() != null && term.getAnnotation().containsAnnotation(annotationType)) {
-                List<String> termValues = term.getAnnotation().getAnnotation(annotationType);
-                if (termValues != null && !termValues.isEmpty() && NumberUtils.isNumber(termValues.get(0))) {
-                    double value = Double.parseDouble(termValues.get(0));
-                    if (value >= fromDblValue && value <= toDblValue)
-                        termResult.add(term);
-                }
-            }
+        if (ontologyID == null || ontologyID.isEmpty())
+            return Collections.emptyList();
+        return getNumericAnnotationIndex(ontologyID).getTerms(annotationType, fromDblValue, toDblValue);
+    }
+
+    /**
+     * The numeric annotations of the current version of an ontology. The terms of the ontology are
+     * downloaded once per version and kept by the client; the version is read from the list of
+     * ontologies (see {@link AbstractOLSWsConfig#getOntologyRegistryTtl()}), so checking it does not
+     * cost a request.
+     *
+     * @param ontologyID Ontology reference
+     * @return the index, empty if the ontology id is null or empty.
+     * @throws RestClientException if there are problems connecting to the REST service.
+     */
+    public NumericAnnotationIndex getNumericAnnotationIndex(String ontologyID) throws RestClientException {
+        if (ontologyID == null || ontologyID.trim().isEmpty())
+            return NumericAnnotationIndex.build("", null, Collections.emptyList());
+        return ontologyAnnotations(ontologyID).getNumericAnnotationIndex();
+    }
+
+    /*
+     * Concurrent lookups of an ontology that is being downloaded wait for the same download.
+     */
+    private OntologyAnnotations ontologyAnnotations(String ontologyID) {
+        String id = ontologyID.trim().toLowerCase(Locale.ROOT);
+        OntologyAnnotations current = ontologyAnnotations.get(id);
+        if (current != null) {
+            String version = getOntologyVersion(getOntologyFromId(id));
+            if (version == null || version.equals(current.getVersion()))
+                return current;
         }
-        return termResult;
+        return annotationLoads.execute(id, () -> {
+            OntologyAnnotations loaded = ontologyAnnotations.get(id);
+            if (loaded != null && loaded != current)
+                return loaded;
+            String version = getOntologyVersion(getOntologyFromId(id));
+            loaded = new OntologyAnnotations(id, version, getAllOBOTermsFromOntology(id));
+            ontologyAnnotations.put(id, loaded);
+            log.debug("Read the annotations of the ontology {} version {}", id, version);
+            return loaded;
+        });
     }
 
     public Ontology getOntology(String ontologyId) throws RestClientException {
@@ -1080,6 +1939,100 @@ public class OLSClient implements Client {
         return xrefs;
     }
 
+    /**
+     * Number of pages of a paginated result. Uses the page information returned by OLS and falls back
+     * to the number of elements when the total number of pages is not provided.
+     */
+    private static int getTotalPages(QueryResult firstPage, int firstPageSize) {
+        Page page = firstPage.getPage();
+        if (page == null)
+            return 1;
+        if (page.getTotalPages() > 0)
+            return page.getTotalPages();
+        return firstPageSize == 0 ? 1 : page.getTotalElements() / firstPageSize + 1;
+    }
+
+    /**
+     * Fetch the pages [firstPage, lastPage) of a paginated result. At most
+     * {@link AbstractOLSWsConfig#getPageFetchParallelism()} pages are in flight at any time, the
+     * returned list keeps the page order.
+     *
+     * @param firstPage   first page to fetch (inclusive)
+     * @param lastPage    last page to fetch (exclusive)
+     * @param pageFetcher function requesting one page
+     * @return the fetched pages, in order.
+     * @throws RestClientException if any of the pages could not be retrieved.
+     */
+    private <Q> List<Q> fetchPages(int firstPage, int lastPage, IntFunction<Q> pageFetcher) throws RestClientException {
+        return fetchConcurrently(Math.max(0, lastPage - firstPage), config.getPageFetchParallelism(),
+                index -> pageFetcher.apply(firstPage + index));
+    }
+
+    /**
+     * Run the fetcher for the indexes [0, count) with at most {@code parallelism} calls in flight.
+     * A new call starts as soon as any of the running ones completes.
+     *
+     * @return the results, in index order.
+     * @throws RestClientException if any of the calls failed, the calls not started yet are cancelled.
+     */
+    private <Q> List<Q> fetchConcurrently(int count, int parallelism, IntFunction<Q> fetcher) throws RestClientException {
+        List<Q> results = new ArrayList<>(Collections.nCopies(count, null));
+        parallelism = Math.max(1, parallelism);
+        if (parallelism == 1 || count <= 1) {
+            for (int index = 0; index < count; index++)
+                results.set(index, fetcher.apply(index));
+            return results;
+        }
+        CompletionService<Integer> completion = new ExecutorCompletionService<>(executor);
+        List<Future<Integer>> running = new ArrayList<>(Math.min(count, parallelism));
+        int next = 0;
+        try {
+            for (; next < count && next < parallelism; next++)
+                running.add(submitFetch(completion, results, fetcher, next));
+            for (int done = 0; done < count; done++) {
+                await(take(completion));
+                if (next < count)
+                    running.add(submitFetch(completion, results, fetcher, next++));
+            }
+        } finally {
+            for (Future<Integer> pending : running)
+                pending.cancel(false);
+        }
+        return results;
+    }
+
+    private static <Q> Future<Integer> submitFetch(CompletionService<Integer> completion, List<Q> results, IntFunction<Q> fetcher, int index) {
+        return completion.submit(() -> {
+            Q result = fetcher.apply(index);
+            synchronized (results) {
+                results.set(index, result);
+            }
+            return index;
+        });
+    }
+
+    private static Future<Integer> take(CompletionService<Integer> completion) throws RestClientException {
+        try {
+            return completion.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RestClientException("Interrupted while waiting for the OLS response");
+        }
+    }
+
+    private static <Q> Q await(Future<Q> future) throws RestClientException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RestClientException("Interrupted while waiting for the OLS response");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RestClientException)
+                throw (RestClientException) e.getCause();
+            throw new RestClientException(String.valueOf(e.getCause().getMessage()), e.getCause());
+        }
+    }
+
     private URI encodeURL(String path, String query) {
         URI uri;
         try {
@@ -1100,11 +2053,34 @@ public class OLSClient implements Client {
         }
     }
 
+    private Semaphore hostPermits(URI uri) {
+        return hostPermits.computeIfAbsent(String.valueOf(uri.getAuthority()), host -> {
+            int permits = config.getMaxConcurrentRequestsPerHost() > 0
+                    ? config.getMaxConcurrentRequestsPerHost()
+                    : config.getMaxConnectionsPerHost();
+            return new Semaphore(Math.max(1, permits));
+        });
+    }
+
+    /*
+     * Concurrent requests for the same URI and response type are coalesced: only the first one
+     * reaches the service and the others receive the same deserialized object (or exception). The
+     * requests shared this way are never interrupted, abandoned requests are left to complete.
+     */
+    @SuppressWarnings("unchecked")
     private <T> T getForObject(URI uri, Class<T> clazz) throws RestClientException {
-        try {
-            return this.mapper.readValue(uri.toURL(), clazz);
-        } catch (IOException e) {
-            throw new RestClientException(e.getMessage());
-        }
+        String key = clazz.getName() + ' ' + uri.normalize().toASCIIString();
+        return (T) inFlightRequests.execute(key, () -> {
+            // the callers waiting for this request must not fail because this thread is interrupted
+            Semaphore permits = hostPermits(uri);
+            permits.acquireUninterruptibly();
+            try {
+                return transport.get(uri, body -> mapper.readValue(body, clazz));
+            } catch (IOException e) {
+                throw new RestClientException(e.getMessage());
+            } finally {
+                permits.release();
+            }
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.client;
+
+import uk.ac.ebi.pride.utilities.ols.web.service.annotation.AnnotationValueIndex;
+import uk.ac.ebi.pride.utilities.ols.web.service.annotation.NumericAnnotationIndex;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Term;
+import uk.ac.ebi.pride.utilities.ols.web.service.utils.Lazy;
+
+import java.util.List;
+
+/**
+ * The terms of a version of an ontology, downloaded once for the annotation lookups of
+ * {@link OLSClient}, with the annotation indexes built from them on first use.
+ */
+class OntologyAnnotations {
+
+    private final String version;
+    private final Lazy<NumericAnnotationIndex> numericAnnotations;
+    private final Lazy<AnnotationValueIndex> annotationValues;
+
+    /**
+     * @param ontologyId id of the ontology
+     * @param version    version of the ontology the terms were read from, null if unknown
+     * @param terms      all the terms of the ontology
+     */
+    OntologyAnnotations(String ontologyId, String version, List<Term> terms) {
+        this.version = version;
+        this.numericAnnotations = new Lazy<>(() -> NumericAnnotationIndex.build(ontologyId, version, terms));
+        this.annotationValues = new Lazy<>(() -> AnnotationValueIndex.build(ontologyId, version, terms));
+    }
+
+    String getVersion() {
+        return version;
+    }
+
+    NumericAnnotationIndex getNumericAnnotationIndex() {
+        return numericAnnotations.get();
+    }
+
+    AnnotationValueIndex getAnnotationValueIndex() {
+        return annotationValues.get();
+    }
+}
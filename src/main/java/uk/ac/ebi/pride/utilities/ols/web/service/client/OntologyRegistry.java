@@ -0,0 +1,140 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.client;
+
+import lombok.extern.slf4j.Slf4j;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Ontology;
+import uk.ac.ebi.pride.utilities.ols.web.service.utils.SingleFlight;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * In-memory copy of the list of ontologies of OLS, indexed by id, preferred prefix, namespace and
+ * file location. The list is downloaded on the first lookup and again when it is older than the
+ * configured time to live; a reload that finds the same ontologies with the same updated dates
+ * keeps the current indexes.
+ *
+ * A lookup that does not find its key also reloads the list, at most once per minute, so ontologies
+ * added to OLS are found without waiting for the time to live.
+ */
+@Slf4j
+class OntologyRegistry {
+
+    private static final long MISS_REFRESH_INTERVAL = 60 * 1000L;
+
+    private final Supplier<List<Ontology>> loader;
+    private final LongSupplier ttlMillis;
+    private final SingleFlight<String, Snapshot> refreshes = new SingleFlight<>();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * @param loader    downloads the full list of ontologies
+     * @param ttlMillis time to live of the list, 0 or less to download it for every lookup
+     */
+    OntologyRegistry(Supplier<List<Ontology>> loader, LongSupplier ttlMillis) {
+        this.loader = loader;
+        this.ttlMillis = ttlMillis;
+    }
+
+    Ontology getById(String id) {
+        return lookup(snapshot -> snapshot.byId.get(id));
+    }
+
+    /**
+     * @param prefix preferred prefix or namespace of the ontology, the case is ignored
+     */
+    Ontology getByPrefix(String prefix) {
+        return prefix == null ? null : lookup(snapshot -> snapshot.byPrefix.get(prefix.toLowerCase()));
+    }
+
+    Ontology getByFileLocation(String fileLocation) {
+        return lookup(snapshot -> snapshot.byFileLocation.get(fileLocation));
+    }
+
+    List<Ontology> getAll() {
+        return current().ontologies;
+    }
+
+    /**
+     * Download the list of ontologies again on the next lookup.
+     */
+    void invalidate() {
+        snapshot = null;
+    }
+
+    /**
+     * Download the list of ontologies now.
+     */
+    void refresh() {
+        refreshes.execute("ontologies", this::load);
+    }
+
+    private Ontology lookup(Function<Snapshot, Ontology> index) {
+        Snapshot current = current();
+        Ontology ontology = index.apply(current);
+        if (ontology == null && current.age() > MISS_REFRESH_INTERVAL)
+            ontology = index.apply(refreshes.execute("ontologies", this::load));
+        return ontology;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        long ttl = ttlMillis.getAsLong();
+        if (current == null || ttl <= 0 || current.age() > ttl)
+            current = refreshes.execute("ontologies", this::load);
+        return current;
+    }
+
+    private Snapshot load() {
+        Snapshot loaded = new Snapshot(loader.get());
+        Snapshot previous = snapshot;
+        if (previous != null && previous.updatedDates.equals(loaded.updatedDates)) {
+            log.debug("The ontologies have not been updated since the last download");
+            previous.loadedAt = loaded.loadedAt;
+            return previous;
+        }
+        if (previous != null)
+            log.info("The list of ontologies changed, {} ontologies loaded", loaded.ontologies.size());
+        snapshot = loaded;
+        return loaded;
+    }
+
+    private static final class Snapshot {
+        private final List<Ontology> ontologies;
+        private final Map<String, Ontology> byId = new HashMap<>();
+        private final Map<String, Ontology> byPrefix = new HashMap<>();
+        private final Map<String, Ontology> byFileLocation = new HashMap<>();
+        private final Map<String, String> updatedDates = new HashMap<>();
+        private volatile long loadedAt = System.nanoTime();
+
+        private Snapshot(List<Ontology> ontologies) {
+            this.ontologies = Collections.unmodifiableList(ontologies);
+            for (Ontology ontology : ontologies) {
+                if (ontology == null || ontology.getId() == null)
+                    continue;
+                byId.putIfAbsent(ontology.getId(), ontology);
+                updatedDates.put(ontology.getId(), Objects.toString(ontology.getUpdatedDate()));
+                if (ontology.getConfig() != null) {
+                    if (ontology.getConfig().getPreferredPrefix() != null)
+                        byPrefix.putIfAbsent(ontology.getConfig().getPreferredPrefix().toLowerCase(), ontology);
+                    if (ontology.getConfig().getFileLocation() != null)
+                        byFileLocation.putIfAbsent(ontology.getConfig().getFileLocation(), ontology);
+                }
+            }
+            // the namespace only resolves prefixes that are not the preferred prefix of another ontology
+            for (Ontology ontology : ontologies)
+                if (ontology != null && ontology.getNamespace() != null)
+                    byPrefix.putIfAbsent(ontology.getNamespace().toLowerCase(), ontology);
+        }
+
+        private long age() {
+            return (System.nanoTime() - loadedAt) / 1_000_000;
+        }
+    }
+}
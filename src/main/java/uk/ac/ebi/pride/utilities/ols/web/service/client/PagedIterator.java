@@ -0,0 +1,96 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.client;
+
+import org.springframework.web.client.RestClientException;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterator over the elements of a paginated OLS result. Pages are requested lazily: the first page
+ * is fetched when the first element is requested and, while the caller consumes a page, the next one
+ * is already being fetched in the background (one page read-ahead). Only the current page and the
+ * prefetched one are kept in memory.
+ *
+ * @param <T> type of the elements
+ */
+class PagedIterator<T> implements Iterator<T>, AutoCloseable {
+
+    private final Executor executor;
+
+    private Supplier<ResultPage<T>> firstPage;
+    private Iterator<T> current = Collections.emptyIterator();
+    private CompletableFuture<ResultPage<T>> prefetched;
+    private boolean closed;
+
+    PagedIterator(Supplier<ResultPage<T>> firstPage, Executor executor) {
+        this.firstPage = firstPage;
+        this.executor = executor;
+    }
+
+    /**
+     * Sequential, ordered stream over all the elements of the result. Closing the stream cancels
+     * the pending read-ahead request.
+     */
+    static <T> Stream<T> stream(Supplier<ResultPage<T>> firstPage, Executor executor) {
+        PagedIterator<T> iterator = new PagedIterator<>(firstPage, executor);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (closed)
+                return false;
+            ResultPage<T> page;
+            if (firstPage != null) {
+                page = firstPage.get();
+                firstPage = null;
+            } else if (prefetched != null) {
+                page = join(prefetched);
+            } else {
+                return false;
+            }
+            prefetched = page.hasNext() ? CompletableFuture.supplyAsync(page.getNext(), executor) : null;
+            current = page.getItems().iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        return current.next();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        current = Collections.emptyIterator();
+        if (prefetched != null)
+            prefetched.cancel(true);
+        prefetched = null;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RestClientException)
+                throw (RestClientException) cause;
+            throw new RestClientException(String.valueOf(cause.getMessage()), cause);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.client;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * {@link Flow.Publisher} over the elements of a paginated OLS result. Every subscriber gets its own
+ * traversal of the result and a page is only requested from OLS when the subscriber has signalled
+ * demand for more elements than the ones already buffered, so a slow subscriber never causes more
+ * than one page to be held in memory.
+ *
+ * Signals are delivered from the given executor, one at a time per subscription.
+ *
+ * @param <T> type of the elements
+ */
+class PagedPublisher<T> implements Flow.Publisher<T> {
+
+    private final Supplier<ResultPage<T>> firstPage;
+    private final Executor executor;
+
+    PagedPublisher(Supplier<ResultPage<T>> firstPage, Executor executor) {
+        this.firstPage = firstPage;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        PageSubscription subscription = new PageSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    private class PageSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        // only accessed from the drain loop
+        private final Deque<T> buffer = new ArrayDeque<>();
+        private Supplier<ResultPage<T>> nextPage = firstPage;
+        private boolean terminated;
+
+        private volatile boolean cancelled;
+        private volatile Throwable invalidRequest;
+
+        PageSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0)
+                invalidRequest = new IllegalArgumentException("Non-positive request: " + n);
+            else
+                demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() == 0)
+                executor.execute(this::drainLoop);
+        }
+
+        private void drainLoop() {
+            int missed = 1;
+            while (true) {
+                if (!terminated && !cancelled)
+                    emit();
+                missed = wip.addAndGet(-missed);
+                if (missed == 0)
+                    return;
+            }
+        }
+
+        private void emit() {
+            if (invalidRequest != null) {
+                fail(invalidRequest);
+                return;
+            }
+            while (!cancelled && demand.get() > 0) {
+                T item = buffer.poll();
+                if (item == null) {
+                    if (nextPage == null)
+                        break;
+                    try {
+                        ResultPage<T> page = nextPage.get();
+                        buffer.addAll(page.getItems());
+                        nextPage = page.getNext();
+                    } catch (Throwable e) {
+                        fail(e);
+                        return;
+                    }
+                    continue;
+                }
+                subscriber.onNext(item);
+                demand.decrementAndGet();
+            }
+            if (!cancelled && buffer.isEmpty() && nextPage == null) {
+                terminated = true;
+                subscriber.onComplete();
+            }
+        }
+
+        private void fail(Throwable error) {
+            terminated = true;
+            buffer.clear();
+            nextPage = null;
+            subscriber.onError(error);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.client;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * One page of a paginated OLS result together with the request that retrieves the following page.
+ *
+ * @param <T> type of the elements in the page
+ */
+final class ResultPage<T> {
+
+    private final List<T> items;
+    private final Supplier<ResultPage<T>> next;
+
+    ResultPage(List<T> items, Supplier<ResultPage<T>> next) {
+        this.items = items == null ? Collections.emptyList() : items;
+        this.next = next;
+    }
+
+    static <T> ResultPage<T> empty() {
+        return new ResultPage<>(Collections.emptyList(), null);
+    }
+
+    List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return the loader of the next page, null if this is the last page.
+     */
+    Supplier<ResultPage<T>> getNext() {
+        return next;
+    }
+
+    boolean hasNext() {
+        return next != null;
+    }
+}
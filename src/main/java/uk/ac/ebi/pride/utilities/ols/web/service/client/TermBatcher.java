@@ -0,0 +1,218 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.RestClientException;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Identifier;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Term;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Group the term lookups of the same ontology that arrive within a short window into a single
+ * search request. The first lookup of an ontology opens a batch that is sent when the window
+ * elapses or when it reaches the maximum size; every caller then receives the term matching its
+ * id (OBO id, short form or IRI).
+ *
+ * Ids that are not part of the search response are looked up one by one with the fallback
+ * function. The terms found by the search are built from search results, so the batching is only
+ * used by the lookups that return search result terms.
+ *
+ * Closing the batcher fails the lookups that are still waiting for their batch.
+ */
+@Slf4j
+class TermBatcher {
+
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final BiFunction<List<String>, String, List<Term>> searcher;
+    private final BiFunction<String, String, Term> fallback;
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
+
+    // batches waiting for their window to elapse, by ontology
+    private final Map<String, Batch> pending = new HashMap<>();
+
+    // batches with lookups not answered yet, and whether the batcher was closed, guarded by pending
+    private final Set<Batch> unanswered = new HashSet<>();
+    private boolean closed;
+
+    /**
+     * @param windowMillis time a batch waits for more lookups
+     * @param maxBatchSize number of ids that sends a batch before its window elapses
+     * @param searcher     searches a list of ids in an ontology
+     * @param fallback     looks up a single id in an ontology
+     * @param scheduler    triggers the batches when their window elapses
+     * @param executor     runs the search requests
+     */
+    TermBatcher(long windowMillis, int maxBatchSize,
+                BiFunction<List<String>, String, List<Term>> searcher,
+                BiFunction<String, String, Term> fallback,
+                ScheduledExecutorService scheduler, Executor executor) {
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.searcher = searcher;
+        this.fallback = fallback;
+        this.scheduler = scheduler;
+        this.executor = executor;
+    }
+
+    /**
+     * Look up a term, waiting for the batch it belongs to.
+     *
+     * @param id         OBO id, short form or IRI of the term
+     * @param ontologyId ontology of the term
+     * @return the term, null if it was not found
+     * @throws RestClientException if the search request failed or the batcher is closed.
+     */
+    Term lookup(String id, String ontologyId) throws RestClientException {
+        String ontology = ontologyId.toLowerCase();
+        CompletableFuture<Term> result;
+        Batch full = null;
+        synchronized (pending) {
+            if (closed)
+                throw closedException();
+            Batch batch = pending.get(ontology);
+            if (batch == null) {
+                batch = new Batch(ontology);
+                Batch scheduled = batch;
+                try {
+                    scheduler.schedule(() -> send(scheduled), windowMillis, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    throw closedException();
+                }
+                pending.put(ontology, batch);
+                unanswered.add(batch);
+            }
+            result = batch.lookups.computeIfAbsent(id, key -> new CompletableFuture<>());
+            if (batch.lookups.size() >= maxBatchSize)
+                full = batch;
+        }
+        if (full != null)
+            send(full);
+        return await(result);
+    }
+
+    /**
+     * Fail the lookups waiting for a batch, and the lookups made from now on.
+     */
+    void close() {
+        List<CompletableFuture<Term>> lookups = new ArrayList<>();
+        synchronized (pending) {
+            closed = true;
+            for (Batch batch : unanswered)
+                lookups.addAll(batch.lookups.values());
+            unanswered.clear();
+            pending.clear();
+        }
+        RestClientException e = closedException();
+        lookups.forEach(lookup -> lookup.completeExceptionally(e));
+    }
+
+    /*
+     * Remove the batch from the pending ones (if it is still there) and run its search.
+     */
+    private void send(Batch batch) {
+        synchronized (pending) {
+            if (batch.sent)
+                return;
+            batch.sent = true;
+            pending.remove(batch.ontology, batch);
+        }
+        CompletableFuture.allOf(batch.lookups.values().toArray(new CompletableFuture<?>[0])).whenComplete((terms, e) -> {
+            synchronized (pending) {
+                unanswered.remove(batch);
+            }
+        });
+        try {
+            executor.execute(() -> run(batch));
+        } catch (RejectedExecutionException e) {
+            RestClientException closed = closedException();
+            batch.lookups.values().forEach(lookup -> lookup.completeExceptionally(closed));
+        }
+    }
+
+    private void run(Batch batch) {
+        List<String> ids = new ArrayList<>(batch.lookups.keySet());
+        Map<String, Term> found = new HashMap<>();
+        try {
+            for (Term term : searcher.apply(ids, batch.ontology)) {
+                if (term == null)
+                    continue;
+                index(found, term.getTermOBOId(), term);
+                index(found, term.getShortForm(), term);
+                index(found, term.getIri(), term);
+            }
+        } catch (RuntimeException e) {
+            batch.lookups.values().forEach(lookup -> lookup.completeExceptionally(e));
+            return;
+        }
+        log.debug("Batch of {} ids for ontology {} answered {} terms", ids.size(), batch.ontology, found.size());
+        for (Map.Entry<String, CompletableFuture<Term>> lookup : batch.lookups.entrySet()) {
+            Term term = found.get(lookup.getKey().toLowerCase());
+            if (term != null)
+                lookup.getValue().complete(term);
+            else
+                fallback(lookup.getKey(), batch.ontology, lookup.getValue());
+        }
+    }
+
+    private void fallback(String id, String ontology, CompletableFuture<Term> lookup) {
+        try {
+            executor.execute(() -> {
+                try {
+                    lookup.complete(fallback.apply(id, ontology));
+                } catch (RuntimeException e) {
+                    lookup.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            lookup.completeExceptionally(closedException());
+        }
+    }
+
+    private static RestClientException closedException() {
+        return new RestClientException("The OLS client was closed");
+    }
+
+    private static void index(Map<String, Term> found, Identifier id, Term term) {
+        if (id != null && id.getIdentifier() != null)
+            found.putIfAbsent(id.getIdentifier().toLowerCase(), term);
+    }
+
+    private static Term await(CompletableFuture<Term> result) throws RestClientException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RestClientException("Interrupted while waiting for the OLS response");
+        } catch (ExecutionException | CompletionException e) {
+            if (e.getCause() instanceof RestClientException)
+                throw (RestClientException) e.getCause();
+            throw new RestClientException(String.valueOf(e.getCause().getMessage()), e.getCause());
+        }
+    }
+
+    private static final class Batch {
+        private final String ontology;
+        private final Map<String, CompletableFuture<Term>> lookups = new LinkedHashMap<>();
+        private boolean sent;
+
+        private Batch(String ontology) {
+            this.ontology = ontology;
+        }
+    }
+}
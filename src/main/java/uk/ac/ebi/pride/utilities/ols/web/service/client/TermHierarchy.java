@@ -0,0 +1,53 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.client;
+
+import org.springframework.web.client.RestClientException;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Identifier;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Term;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Navigation of the hierarchy of an ontology, answered either by OLS ({@link OLSClient}) or by a
+ * local copy of the ontology ({@link uk.ac.ebi.pride.utilities.ols.web.service.local.OntologyGraph}).
+ *
+ * A distance of {@link Integer#MAX_VALUE} or a negative distance returns all the descendants
+ * (or ancestors) of the term. Every term is returned once, even if it can be reached through
+ * several paths.
+ */
+public interface TermHierarchy {
+
+    /**
+     * This method retrieve a List with the child terms for an specific term.
+     * @param termOBOId Term Identifier
+     * @param ontologyId Ontology Name
+     * @param distance Distance to the child (1..n) where the distance is the step to the children.
+     * @return list of terms.
+     */
+    List<Term> getTermChildren(Identifier termOBOId, String ontologyId, int distance) throws RestClientException;
+
+    /**
+     * This method retrieve a List with the parent terms for an specific term.
+     * @param termOBOId Term Identifier
+     * @param ontologyId Ontology Name
+     * @param distance Distance to the parent (1..n) where the distance is the step to the children.
+     * @return list of terms.
+     */
+    List<Term> getTermParents(Identifier termOBOId, String ontologyId, int distance) throws RestClientException;
+
+    /**
+     * @param termId     Term Identifier
+     * @param ontologyId Ontology Name
+     * @param distance   Distance to the child (1..n) where the distance is the step to the children.
+     * @return map from every child term to its minimum distance to the term, ordered by distance.
+     */
+    Map<Term, Integer> getTermChildrenWithDistance(Identifier termId, String ontologyId, int distance) throws RestClientException;
+
+    /**
+     * @param termId     Term Identifier
+     * @param ontologyId Ontology Name
+     * @param distance   Distance to the parent (1..n) where the distance is the step to the parents.
+     * @return map from every parent term to its minimum distance to the term, ordered by distance.
+     */
+    Map<Term, Integer> getTermParentsWithDistance(Identifier termId, String ontologyId, int distance) throws RestClientException;
+}
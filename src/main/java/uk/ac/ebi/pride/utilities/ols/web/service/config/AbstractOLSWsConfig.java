@@ -1,6 +1,8 @@
 package uk.ac.ebi.pride.utilities.ols.web.service.config;
 
 
+import uk.ac.ebi.pride.utilities.ols.web.service.utils.Constants;
+
 /**
  * @author ypriverol
  *
@@ -10,6 +12,31 @@ public abstract class AbstractOLSWsConfig {
     private String hostName;
     private String protocol;
 
+    // HTTP connection pool settings, timeouts are in milliseconds
+    private int connectTimeout = Constants.DEFAULT_CONNECT_TIMEOUT;
+    private int readTimeout = Constants.DEFAULT_READ_TIMEOUT;
+    private int maxConnectionsPerHost = Constants.DEFAULT_MAX_CONNECTIONS_PER_HOST;
+    private int maxConnectionsTotal = Constants.DEFAULT_MAX_CONNECTIONS_TOTAL;
+    private int idleConnectionTimeout = Constants.DEFAULT_IDLE_CONNECTION_TIMEOUT;
+
+    // Threads running the concurrent requests and limit of requests in flight per host
+    private ExecutorMode executorMode = ExecutorMode.PLATFORM;
+    private int maxConcurrentRequestsPerHost = Constants.DEFAULT_MAX_CONCURRENT_REQUESTS_PER_HOST;
+
+    private int pageFetchParallelism = Constants.DEFAULT_PAGE_FETCH_PARALLELISM;
+    private int batchLookupParallelism = Constants.DEFAULT_BATCH_LOOKUP_PARALLELISM;
+
+    // Term cache, time to live values are in milliseconds
+    private int termCacheSize = Constants.DEFAULT_TERM_CACHE_SIZE;
+    private long termCacheTtl = Constants.DEFAULT_TERM_CACHE_TTL;
+    private long termCacheNegativeTtl = Constants.DEFAULT_TERM_CACHE_NEGATIVE_TTL;
+
+    private long ontologyRegistryTtl = Constants.DEFAULT_ONTOLOGY_REGISTRY_TTL;
+
+    // Micro-batching of term lookups, the window is in milliseconds
+    private long termBatchWindow = Constants.DEFAULT_TERM_BATCH_WINDOW;
+    private int termBatchMaxSize = Constants.DEFAULT_TERM_BATCH_MAX_SIZE;
+
     public AbstractOLSWsConfig(String protocol, String hostName) {
         this.hostName = hostName;
         this.protocol = protocol;
@@ -24,4 +51,182 @@ public abstract class AbstractOLSWsConfig {
         return protocol;
     }
 
+    /**
+     * Maximum time to wait for a TCP/TLS connection to OLS to be established.
+     * @return connect timeout in milliseconds
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    /**
+     * Maximum time of inactivity between two data packets when reading a response.
+     * @return read timeout in milliseconds
+     */
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
+    public int getMaxConnectionsTotal() {
+        return maxConnectionsTotal;
+    }
+
+    public void setMaxConnectionsTotal(int maxConnectionsTotal) {
+        this.maxConnectionsTotal = maxConnectionsTotal;
+    }
+
+    /**
+     * Keep-alive connections idle for longer than this are closed by the pool.
+     * @return idle timeout in milliseconds
+     */
+    public int getIdleConnectionTimeout() {
+        return idleConnectionTimeout;
+    }
+
+    public void setIdleConnectionTimeout(int idleConnectionTimeout) {
+        this.idleConnectionTimeout = idleConnectionTimeout;
+    }
+
+    /**
+     * Threads used by the client for its concurrent requests. The mode is read when the client
+     * is created.
+     * @return the executor mode
+     */
+    public ExecutorMode getExecutorMode() {
+        return executorMode;
+    }
+
+    public void setExecutorMode(ExecutorMode executorMode) {
+        this.executorMode = executorMode;
+    }
+
+    /**
+     * Maximum number of requests sent at the same time to one OLS host, whatever the number of
+     * threads performing lookups. 0 uses {@link #getMaxConnectionsPerHost()}.
+     * @return maximum number of requests in flight per host
+     */
+    public int getMaxConcurrentRequestsPerHost() {
+        return maxConcurrentRequestsPerHost;
+    }
+
+    public void setMaxConcurrentRequestsPerHost(int maxConcurrentRequestsPerHost) {
+        this.maxConcurrentRequestsPerHost = maxConcurrentRequestsPerHost;
+    }
+
+    /**
+     * Maximum number of pages of a paginated result (e.g. all the terms of an ontology) that are
+     * requested concurrently. 1 fetches the pages one after the other.
+     * @return number of pages fetched in parallel
+     */
+    public int getPageFetchParallelism() {
+        return pageFetchParallelism;
+    }
+
+    public void setPageFetchParallelism(int pageFetchParallelism) {
+        this.pageFetchParallelism = pageFetchParallelism;
+    }
+
+    /**
+     * Maximum number of terms of a batch lookup that are requested concurrently.
+     * @return number of term lookups running in parallel
+     */
+    public int getBatchLookupParallelism() {
+        return batchLookupParallelism;
+    }
+
+    public void setBatchLookupParallelism(int batchLookupParallelism) {
+        this.batchLookupParallelism = batchLookupParallelism;
+    }
+
+    /**
+     * Maximum number of terms kept by the client term cache, 0 disables the cache.
+     * @return maximum number of cached terms
+     */
+    public int getTermCacheSize() {
+        return termCacheSize;
+    }
+
+    public void setTermCacheSize(int termCacheSize) {
+        this.termCacheSize = termCacheSize;
+    }
+
+    /**
+     * @return time to live of the cached terms in milliseconds
+     */
+    public long getTermCacheTtl() {
+        return termCacheTtl;
+    }
+
+    public void setTermCacheTtl(long termCacheTtl) {
+        this.termCacheTtl = termCacheTtl;
+    }
+
+    /**
+     * Time to live of a cached "term not found" answer, 0 or less to not cache them.
+     * @return time to live of the cached misses in milliseconds
+     */
+    public long getTermCacheNegativeTtl() {
+        return termCacheNegativeTtl;
+    }
+
+    public void setTermCacheNegativeTtl(long termCacheNegativeTtl) {
+        this.termCacheNegativeTtl = termCacheNegativeTtl;
+    }
+
+    /**
+     * Time after which the list of ontologies kept by the client is downloaded again,
+     * 0 or less to download it for every ontology lookup.
+     * @return time to live of the list of ontologies in milliseconds
+     */
+    public long getOntologyRegistryTtl() {
+        return ontologyRegistryTtl;
+    }
+
+    public void setOntologyRegistryTtl(long ontologyRegistryTtl) {
+        this.ontologyRegistryTtl = ontologyRegistryTtl;
+    }
+
+    /**
+     * Time during which the retrieveTerm calls for the same ontology are collected and answered
+     * with a single search request, 0 disables the batching. Only retrieveTerm is batched:
+     * getTermById, isObsolete and getReplacedBy always request the term, as they need the links,
+     * annotations or replacement terms that a search result does not provide.
+     * @return batching window in milliseconds
+     */
+    public long getTermBatchWindow() {
+        return termBatchWindow;
+    }
+
+    public void setTermBatchWindow(long termBatchWindow) {
+        this.termBatchWindow = termBatchWindow;
+    }
+
+    /**
+     * Number of term lookups that sends a batch before its window elapses.
+     * @return maximum number of ids searched in one request
+     */
+    public int getTermBatchMaxSize() {
+        return termBatchMaxSize;
+    }
+
+    public void setTermBatchMaxSize(int termBatchMaxSize) {
+        this.termBatchMaxSize = termBatchMaxSize;
+    }
+
 }
@@ -0,0 +1,19 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.config;
+
+/**
+ * Threads used by the client to run its concurrent requests (parallel pages, batch lookups,
+ * hierarchy traversals and the asynchronous client).
+ */
+public enum ExecutorMode {
+
+    /**
+     * A cached pool of daemon platform threads.
+     */
+    PLATFORM,
+
+    /**
+     * A new virtual thread per request. Requires a JDK with virtual threads (21 or later), on older
+     * JDKs the client falls back to {@link #PLATFORM} threads.
+     */
+    VIRTUAL
+}
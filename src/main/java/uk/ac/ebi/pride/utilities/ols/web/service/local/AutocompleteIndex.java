@@ -0,0 +1,386 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.local;
+
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Term;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Term name completion over the labels and synonyms of a local copy of an ontology, meant to
+ * answer a query for every character typed by a user.
+ *
+ * The names are normalized (lower case, single spaces) and every position where a word of a name
+ * starts is an entry of a sorted array, so the names starting with a prefix, and the names with a
+ * word starting with it, are a contiguous range found by binary search. Names containing the text
+ * elsewhere are found through a trigram index. The matches are ranked: exact names first, then
+ * names starting with the text, names with a word starting with it and finally the other names
+ * containing it; labels before synonyms and shorter names first.
+ */
+public class AutocompleteIndex {
+
+    private static final int EXACT = 0;
+    private static final int NAME_PREFIX = 2;
+    private static final int WORD_PREFIX = 4;
+    private static final int SUBSTRING = 6;
+
+    private final OntologyGraph graph;
+
+    // normalized names, the term they belong to and whether they are a label or a synonym
+    private final String[] names;
+    private final int[] nameTerms;
+    private final boolean[] labels;
+
+    // word starts of the names sorted by the text that follows them
+    private final int[] entryNames;
+    private final int[] entryOffsets;
+
+    // sorted name ids by trigram
+    private final Map<Long, int[]> trigrams;
+
+    private AutocompleteIndex(OntologyGraph graph, List<String> names, List<Integer> nameTerms, List<Boolean> labels) {
+        this.graph = graph;
+        this.names = names.toArray(new String[0]);
+        this.nameTerms = nameTerms.stream().mapToInt(Integer::intValue).toArray();
+        this.labels = new boolean[labels.size()];
+        for (int name = 0; name < this.labels.length; name++)
+            this.labels[name] = labels.get(name);
+
+        List<long[]> entries = new ArrayList<>();
+        for (int name = 0; name < this.names.length; name++) {
+            String text = this.names[name];
+            for (int offset = 0; offset < text.length(); offset++)
+                if (offset == 0 || text.charAt(offset - 1) == ' ')
+                    entries.add(new long[]{name, offset});
+        }
+        entries.sort((a, b) -> compare(this.names[(int) a[0]], (int) a[1], this.names[(int) b[0]], (int) b[1]));
+        entryNames = new int[entries.size()];
+        entryOffsets = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            entryNames[i] = (int) entries.get(i)[0];
+            entryOffsets[i] = (int) entries.get(i)[1];
+        }
+        trigrams = buildTrigrams(this.names);
+    }
+
+    /**
+     * Index the labels and synonyms of all the terms of a graph.
+     */
+    public static AutocompleteIndex build(OntologyGraph graph) {
+        List<String> names = new ArrayList<>();
+        List<Integer> nameTerms = new ArrayList<>();
+        List<Boolean> labels = new ArrayList<>();
+        for (int term = 0; term < graph.size(); term++) {
+            Term current = graph.getTerm(term);
+            Set<String> termNames = new LinkedHashSet<>();
+            String label = normalize(current.getLabel());
+            if (!label.isEmpty())
+                termNames.add(label);
+            if (current.getSynonyms() != null)
+                for (String synonym : current.getSynonyms())
+                    termNames.add(normalize(synonym));
+            for (String synonym : current.getOboSynonyms().keySet())
+                termNames.add(normalize(synonym));
+            for (String name : termNames) {
+                if (name.isEmpty())
+                    continue;
+                names.add(name);
+                nameTerms.add(term);
+                labels.add(name.equals(label));
+            }
+        }
+        return new AutocompleteIndex(graph, names, nameTerms, labels);
+    }
+
+    public OntologyGraph getGraph() {
+        return graph;
+    }
+
+    /*
+     * Raw access to the normalized names for the other indexes of the package.
+     */
+    String[] names() {
+        return names;
+    }
+
+    int[] nameTerms() {
+        return nameTerms;
+    }
+
+    boolean[] labels() {
+        return labels;
+    }
+
+    /**
+     * @param prefix beginning of a name, or of a word of a name
+     * @param limit  maximum number of terms returned
+     * @return the best ranked terms with a name or a word of a name starting with the prefix.
+     */
+    public List<Term> complete(String prefix, int limit) {
+        return start(prefix).getTerms(limit);
+    }
+
+    /**
+     * @param text  text contained in a name
+     * @param limit maximum number of terms returned
+     * @return the best ranked terms with a name containing the text.
+     */
+    public List<Term> search(String text, int limit) {
+        Completion completion = start(text);
+        Map<Integer, Integer> ranks = completion.rankTerms();
+        if (ranks.size() < limit && !completion.prefix.isEmpty())
+            addSubstringMatches(completion.prefix, ranks);
+        return topTerms(ranks, limit);
+    }
+
+    /**
+     * Start the completion of a prefix, the completion can then be refined when the user types more
+     * characters without searching the whole index again.
+     */
+    public Completion start(String prefix) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty())
+            return new Completion(normalized, 0, 0);
+        return new Completion(normalized, lowerBound(normalized, 0, entryNames.length), upperBound(normalized, 0, entryNames.length));
+    }
+
+    /**
+     * Names starting with a prefix, as a range of the sorted entries of the index.
+     */
+    public final class Completion {
+
+        private final String prefix;
+        private final int from;
+        private final int to;
+
+        private Completion(String prefix, int from, int to) {
+            this.prefix = prefix;
+            this.from = from;
+            this.to = to;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        /**
+         * @param longerPrefix the prefix with the characters typed since this completion
+         * @return the completion of the longer prefix, searched within the range of this one when
+         * it starts with this prefix.
+         */
+        public Completion refine(String longerPrefix) {
+            String normalized = normalize(longerPrefix);
+            if (prefix.isEmpty() || !normalized.startsWith(prefix))
+                return start(normalized);
+            return new Completion(normalized, lowerBound(normalized, from, to), upperBound(normalized, from, to));
+        }
+
+        /**
+         * @return number of names (or words of names) starting with the prefix.
+         */
+        public int getMatchCount() {
+            return to - from;
+        }
+
+        public List<Term> getTerms(int limit) {
+            return topTerms(rankTerms(), limit);
+        }
+
+        /*
+         * Best rank of every term of the range.
+         */
+        private Map<Integer, Integer> rankTerms() {
+            Map<Integer, Integer> ranks = new HashMap<>();
+            for (int entry = from; entry < to; entry++) {
+                int name = entryNames[entry];
+                int rank;
+                if (entryOffsets[entry] > 0)
+                    rank = WORD_PREFIX;
+                else if (names[name].length() == prefix.length())
+                    rank = EXACT;
+                else
+                    rank = NAME_PREFIX;
+                rank = (rank + (labels[name] ? 0 : 1)) << 16 | Math.min(names[name].length(), 0xFFFF);
+                ranks.merge(nameTerms[name], rank, Math::min);
+            }
+            return ranks;
+        }
+    }
+
+    private void addSubstringMatches(String text, Map<Integer, Integer> ranks) {
+        int[] candidates = text.length() < 3 ? null : candidates(text);
+        int count = candidates == null ? names.length : candidates.length;
+        for (int i = 0; i < count; i++) {
+            int name = candidates == null ? i : candidates[i];
+            if (names[name].contains(text)) {
+                int rank = (SUBSTRING + (labels[name] ? 0 : 1)) << 16 | Math.min(names[name].length(), 0xFFFF);
+                ranks.merge(nameTerms[name], rank, Math::min);
+            }
+        }
+    }
+
+    /*
+     * Names having all the trigrams of the text, the shortest posting list is filtered with the others.
+     */
+    private int[] candidates(String text) {
+        List<int[]> postings = new ArrayList<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            int[] posting = trigrams.get(trigram(text, i));
+            if (posting == null)
+                return new int[0];
+            postings.add(posting);
+        }
+        postings.sort(Comparator.comparingInt(posting -> posting.length));
+        int[] result = postings.get(0);
+        for (int i = 1; i < postings.size() && result.length > 0; i++)
+            result = intersect(result, postings.get(i));
+        return result;
+    }
+
+    private List<Term> topTerms(Map<Integer, Integer> ranks, int limit) {
+        Comparator<Map.Entry<Integer, Integer>> order = Map.Entry.<Integer, Integer>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<Integer, Integer>> best = new PriorityQueue<>(order.reversed());
+        for (Map.Entry<Integer, Integer> rank : ranks.entrySet()) {
+            if (limit <= 0)
+                break;
+            if (best.size() < limit) {
+                best.add(rank);
+            } else if (order.compare(rank, best.peek()) < 0) {
+                best.poll();
+                best.add(rank);
+            }
+        }
+        List<Map.Entry<Integer, Integer>> sorted = new ArrayList<>(best);
+        sorted.sort(order);
+        List<Term> terms = new ArrayList<>(sorted.size());
+        for (Map.Entry<Integer, Integer> entry : sorted)
+            terms.add(graph.getTerm(entry.getKey()));
+        return terms;
+    }
+
+    /*
+     * First entry that does not sort before the prefix.
+     */
+    private int lowerBound(String prefix, int from, int to) {
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (comparePrefix(middle, prefix) < 0)
+                from = middle + 1;
+            else
+                to = middle;
+        }
+        return from;
+    }
+
+    /*
+     * First entry that sorts after all the entries starting with the prefix.
+     */
+    private int upperBound(String prefix, int from, int to) {
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (comparePrefix(middle, prefix) <= 0)
+                from = middle + 1;
+            else
+                to = middle;
+        }
+        return from;
+    }
+
+    /*
+     * Compare the beginning of an entry with a prefix, 0 if the entry starts with the prefix.
+     */
+    private int comparePrefix(int entry, String prefix) {
+        String name = names[entryNames[entry]];
+        int offset = entryOffsets[entry];
+        int length = Math.min(name.length() - offset, prefix.length());
+        for (int i = 0; i < length; i++) {
+            int difference = name.charAt(offset + i) - prefix.charAt(i);
+            if (difference != 0)
+                return difference;
+        }
+        return length == prefix.length() ? 0 : -1;
+    }
+
+    private static int compare(String a, int offsetA, String b, int offsetB) {
+        int length = Math.min(a.length() - offsetA, b.length() - offsetB);
+        for (int i = 0; i < length; i++) {
+            int difference = a.charAt(offsetA + i) - b.charAt(offsetB + i);
+            if (difference != 0)
+                return difference;
+        }
+        return (a.length() - offsetA) - (b.length() - offsetB);
+    }
+
+    private static Map<Long, int[]> buildTrigrams(String[] names) {
+        Map<Long, int[]> postings = new HashMap<>();
+        Map<Long, Integer> sizes = new HashMap<>();
+        for (int name = 0; name < names.length; name++) {
+            String text = names[name];
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                long key = trigram(text, i);
+                int[] posting = postings.get(key);
+                int size = sizes.getOrDefault(key, 0);
+                if (posting == null) {
+                    posting = new int[4];
+                    postings.put(key, posting);
+                } else if (posting[size - 1] == name) {
+                    continue;
+                } else if (size == posting.length) {
+                    posting = Arrays.copyOf(posting, size * 2);
+                    postings.put(key, posting);
+                }
+                posting[size] = name;
+                sizes.put(key, size + 1);
+            }
+        }
+        postings.replaceAll((key, posting) -> Arrays.copyOf(posting, sizes.get(key)));
+        return postings;
+    }
+
+    private static long trigram(String text, int offset) {
+        return (long) text.charAt(offset) << 32 | (long) text.charAt(offset + 1) << 16 | text.charAt(offset + 2);
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int size = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j])
+                i++;
+            else if (a[i] > b[j])
+                j++;
+            else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * @return the text in lower case with its blanks collapsed to single spaces.
+     */
+    static String normalize(String text) {
+        if (text == null)
+            return "";
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return "AutocompleteIndex{" +
+                "ontologyId='" + graph.getOntologyId() + '\'' +
+                ", names=" + names.length +
+                ", entries=" + entryNames.length +
+                '}';
+    }
+}
@@ -0,0 +1,110 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.local;
+
+import java.util.Arrays;
+
+/**
+ * Immutable compressed set of non-negative ints, organized like a roaring bitmap: the values are
+ * split in chunks of 65536 by their high 16 bits and every chunk is stored either as a sorted
+ * array of its low 16 bits (sparse chunks) or as a 65536 bit bitmap (dense chunks). Ancestor
+ * sets are small and clustered, so most of them are a single short array.
+ */
+final class CompactBitmap {
+
+    static final CompactBitmap EMPTY = new CompactBitmap(new char[0], new Object[0], 0);
+
+    // a chunk with more values than this uses less memory as a bitmap
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    private final char[] keys;
+    // char[] of sorted low bits or long[] bitmap, by key
+    private final Object[] chunks;
+    private final int cardinality;
+
+    private CompactBitmap(char[] keys, Object[] chunks, int cardinality) {
+        this.keys = keys;
+        this.chunks = chunks;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * @param values sorted values without duplicates
+     * @param count  number of values to read from the array
+     */
+    static CompactBitmap of(int[] values, int count) {
+        if (count == 0)
+            return EMPTY;
+        char[] keys = new char[count];
+        Object[] chunks = new Object[count];
+        int chunkCount = 0;
+        int start = 0;
+        while (start < count) {
+            int key = values[start] >>> 16;
+            int end = start;
+            while (end < count && values[end] >>> 16 == key)
+                end++;
+            keys[chunkCount] = (char) key;
+            chunks[chunkCount++] = end - start > ARRAY_LIMIT ? bitmapChunk(values, start, end) : arrayChunk(values, start, end);
+            start = end;
+        }
+        return new CompactBitmap(Arrays.copyOf(keys, chunkCount), Arrays.copyOf(chunks, chunkCount), count);
+    }
+
+    boolean contains(int value) {
+        if (value < 0)
+            return false;
+        int index = Arrays.binarySearch(keys, (char) (value >>> 16));
+        if (index < 0)
+            return false;
+        char low = (char) value;
+        Object chunk = chunks[index];
+        if (chunk instanceof char[])
+            return Arrays.binarySearch((char[]) chunk, low) >= 0;
+        return (((long[]) chunk)[low >>> 6] & (1L << low)) != 0;
+    }
+
+    int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * @return the values of the set in increasing order.
+     */
+    int[] toArray() {
+        int[] values = new int[cardinality];
+        int size = 0;
+        for (int i = 0; i < keys.length; i++) {
+            int high = keys[i] << 16;
+            if (chunks[i] instanceof char[]) {
+                for (char low : (char[]) chunks[i])
+                    values[size++] = high | low;
+            } else {
+                long[] words = (long[]) chunks[i];
+                for (int word = 0; word < words.length; word++) {
+                    long bits = words[word];
+                    while (bits != 0) {
+                        values[size++] = high | (word << 6) | Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    private static char[] arrayChunk(int[] values, int start, int end) {
+        char[] chunk = new char[end - start];
+        for (int i = start; i < end; i++)
+            chunk[i - start] = (char) values[i];
+        return chunk;
+    }
+
+    private static long[] bitmapChunk(int[] values, int start, int end) {
+        long[] chunk = new long[BITMAP_WORDS];
+        for (int i = start; i < end; i++) {
+            char low = (char) values[i];
+            chunk[low >>> 6] |= 1L << low;
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,459 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.local;
+
+import lombok.extern.slf4j.Slf4j;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Identifier;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.SearchOptions;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.SearchQuery;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.SearchResponse;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.SearchResult;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Term;
+import uk.ac.ebi.pride.utilities.ols.web.service.utils.Constants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Offline replacement of the OLS search (/api/search) over local copies of ontologies. The labels,
+ * synonyms (including the OBO synonyms), descriptions and identifiers of the terms are tokenized in
+ * one inverted index per field (the identifiers are kept whole) and the matches are ranked with
+ * BM25, labels weighting more than synonyms and synonyms more than descriptions.
+ *
+ * Every ontology is a separate segment: indexing a new version of an ontology replaces its segment
+ * only. The document frequencies are summed over the searched segments at query time, so the scores
+ * of terms of different ontologies can be compared. The search options of
+ * {@link uk.ac.ebi.pride.utilities.ols.web.service.client.OLSClient#getSearchQuery(int, String, String, SearchOptions)}
+ * are supported: the searched fields (label, synonym, description, and short_form, obo_id or iri
+ * for the identifiers; all of them when no field is given), exact (the text is a whole value of
+ * one of the searched fields), childrenOf and obsolete. The field list and the page limit are ignored.
+ */
+@Slf4j
+public class FullTextIndex {
+
+    private enum Field {
+        LABEL(3.0), SYNONYM(2.0), DESCRIPTION(1.0), ID(3.0);
+
+        private final double boost;
+
+        Field(double boost) {
+            this.boost = boost;
+        }
+    }
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, Segment> segments = new ConcurrentHashMap<>();
+
+    /**
+     * Index (or index again) the terms of an ontology, replacing the previous version of the
+     * ontology. The subsumption index is used for the childrenOf filter.
+     */
+    public void index(SubsumptionIndex subsumption) {
+        OntologyGraph graph = subsumption.getGraph();
+        String ontologyId = graph.getOntologyId().toLowerCase(Locale.ROOT);
+        Segment current = segments.get(ontologyId);
+        if (current != null && current.subsumption.getGraph() == graph)
+            return;
+        segments.put(ontologyId, new Segment(subsumption));
+        log.debug("Indexed {} terms of {} for full text search", graph.size(), ontologyId);
+    }
+
+    public void remove(String ontologyId) {
+        segments.remove(ontologyId.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * @return the ids of the indexed ontologies
+     */
+    public Set<String> getOntologies() {
+        return new TreeSet<>(segments.keySet());
+    }
+
+    /**
+     * Search the indexed ontologies.
+     *
+     * @param text     text to search
+     * @param ontology ontology id, or comma separated ontology ids, null for all the indexed ontologies
+     * @param options  search options, the page size is the maximum number of terms returned
+     * @return the matching terms, best scores first.
+     */
+    public List<Term> search(String text, String ontology, SearchOptions options) {
+        List<Hit> hits = hits(text, ontology, options);
+        int size = options.getPageSize() > 0 ? options.getPageSize() : Constants.SEARCH_PAGE_SIZE;
+        List<Term> terms = new ArrayList<>(Math.min(size, hits.size()));
+        for (Hit hit : hits.subList(0, Math.min(size, hits.size())))
+            terms.add(hit.segment.graph().getTerm(hit.term));
+        return terms;
+    }
+
+    /**
+     * Local version of the OLS search request: one page of results, starting at a result index.
+     *
+     * @param start    index of the first result of the page
+     * @param name     text to search
+     * @param ontology ontology id, or comma separated ontology ids, null for all the indexed ontologies
+     * @param options  search options
+     * @return the page of results with their scores and the total number of results.
+     */
+    public SearchQuery getSearchQuery(int start, String name, String ontology, SearchOptions options) {
+        List<Hit> hits = hits(name, ontology, options);
+        int size = options.getPageSize() > 0 ? options.getPageSize() : Constants.SEARCH_PAGE_SIZE;
+        int from = Math.min(Math.max(0, start), hits.size());
+        int to = Math.min(hits.size(), from + size);
+        SearchResult[] results = new SearchResult[to - from];
+        for (int i = from; i < to; i++)
+            results[i - from] = toSearchResult(hits.get(i));
+
+        SearchResponse response = new SearchResponse();
+        response.setNumFound(hits.size());
+        response.setCurrentPage(size == 0 ? 0 : from / size);
+        response.setSearchResults(results);
+        SearchQuery query = new SearchQuery();
+        query.setResponse(response);
+        return query;
+    }
+
+    private List<Hit> hits(String text, String ontology, SearchOptions options) {
+        List<String> tokens = tokenize(text);
+        if (tokens.isEmpty())
+            return Collections.emptyList();
+        List<Segment> searched = new ArrayList<>();
+        if (ontology == null || ontology.trim().isEmpty()) {
+            searched.addAll(segments.values());
+        } else {
+            for (String id : ontology.split(",")) {
+                Segment segment = segments.get(id.trim().toLowerCase(Locale.ROOT));
+                if (segment != null)
+                    searched.add(segment);
+            }
+        }
+        Set<Field> fields = fields(options.getQueryFields());
+        String exactName = options.isExact() ? AutocompleteIndex.normalize(text) : null;
+        List<String> ancestors = options.getChildrenOf() == null || options.getChildrenOf().trim().isEmpty()
+                ? Collections.emptyList() : Arrays.asList(options.getChildrenOf().split(","));
+
+        // the identifiers are matched as a whole, the other fields word by word
+        Map<Field, List<String>> fieldTokens = new EnumMap<>(Field.class);
+        for (Field field : fields)
+            fieldTokens.put(field, field == Field.ID ? Collections.singletonList(text.trim().toLowerCase(Locale.ROOT)) : tokens);
+
+        // inverse document frequencies over all the searched segments, the document frequency of a
+        // word is the largest of its fields so that the field weights decide between the fields
+        int documents = searched.stream().mapToInt(segment -> segment.graph().size()).sum();
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (Field field : fields) {
+            for (String token : fieldTokens.get(field)) {
+                int frequency = 0;
+                for (Segment segment : searched)
+                    frequency += segment.fields.get(field).documentFrequency(token);
+                frequencies.merge(token, frequency, Math::max);
+            }
+        }
+        Map<Field, double[]> idf = new EnumMap<>(Field.class);
+        for (Field field : fields) {
+            List<String> queried = fieldTokens.get(field);
+            double[] values = new double[queried.size()];
+            for (int i = 0; i < queried.size(); i++) {
+                int frequency = frequencies.get(queried.get(i));
+                values[i] = Math.log(1 + (documents - frequency + 0.5) / (frequency + 0.5));
+            }
+            idf.put(field, values);
+        }
+
+        List<Hit> hits = new ArrayList<>();
+        for (Segment segment : searched) {
+            double[] scores = new double[segment.graph().size()];
+            for (Field field : fields)
+                segment.fields.get(field).score(fieldTokens.get(field), idf.get(field), field.boost, scores);
+            int[] candidates = exactName != null ? segment.exactMatches(exactName, fields) : null;
+            int count = candidates != null ? candidates.length : scores.length;
+            for (int i = 0; i < count; i++) {
+                int term = candidates != null ? candidates[i] : i;
+                if ((candidates == null && scores[term] <= 0) || !accept(segment, term, options, ancestors))
+                    continue;
+                hits.add(new Hit(segment, term, scores[term]));
+            }
+        }
+        hits.sort((a, b) -> {
+            int order = Double.compare(b.score, a.score);
+            return order != 0 ? order : Integer.compare(a.term, b.term);
+        });
+        return hits;
+    }
+
+    private static boolean accept(Segment segment, int term, SearchOptions options, List<String> ancestors) {
+        Term candidate = segment.graph().getTerm(term);
+        if (candidate.isObsolete() && !options.isObsolete())
+            return false;
+        if (ancestors.isEmpty())
+            return true;
+        for (String ancestor : ancestors)
+            if (segment.subsumption.isDescendantOf(OntologyGraph.keyOf(candidate), ancestor.trim()))
+                return true;
+        return false;
+    }
+
+    private static SearchResult toSearchResult(Hit hit) {
+        Term term = hit.segment.graph().getTerm(hit.term);
+        SearchResult result = new SearchResult();
+        result.setId(hit.segment.graph().getOntologyId() + ":class:" + OntologyGraph.keyOf(term));
+        if (term.getIri() != null)
+            result.setIri(term.getIri().getIdentifier());
+        if (term.getShortForm() != null && term.getShortForm().getIdentifier() != null)
+            result.setShortName(Collections.singletonList(term.getShortForm().getIdentifier()));
+        if (term.getTermOBOId() != null && term.getTermOBOId().getIdentifier() != null)
+            result.setOboId(Collections.singletonList(term.getTermOBOId().getIdentifier()));
+        if (term.getLabel() != null)
+            result.setName(new String[]{term.getLabel()});
+        result.setDescription(term.getDescription());
+        result.setOntologyName(term.getOntologyName() != null ? term.getOntologyName() : hit.segment.graph().getOntologyId());
+        result.setOntologyIri(term.getOntologyIri());
+        result.setIsDefiningOntology(term.isDefinedOntology());
+        result.setObsolete(term.isObsolete());
+        result.setAnnotation(term.getAnnotation());
+        result.setOboDefinitionCitation(term.getOboDefinitionCitation());
+        result.setScore(String.valueOf((float) hit.score));
+        return result;
+    }
+
+    /*
+     * Fields named by a queryFields request parameter, all the fields when there is none.
+     */
+    private static Set<Field> fields(String queryFields) {
+        if (queryFields == null)
+            return EnumSet.allOf(Field.class);
+        Set<Field> fields = EnumSet.noneOf(Field.class);
+        String names = queryFields.startsWith("queryFields=") ? queryFields.substring("queryFields=".length()) : queryFields;
+        for (String name : names.split(",")) {
+            switch (name.trim()) {
+                case "label":
+                    fields.add(Field.LABEL);
+                    break;
+                case "synonym":
+                    fields.add(Field.SYNONYM);
+                    break;
+                case "description":
+                    fields.add(Field.DESCRIPTION);
+                    break;
+                case "short_form":
+                case "obo_id":
+                case "iri":
+                    fields.add(Field.ID);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return fields.isEmpty() ? EnumSet.allOf(Field.class) : fields;
+    }
+
+    /**
+     * @return the lower case words and numbers of a text, in order.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null)
+            return tokens;
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /*
+     * The indexes of the terms of one version of an ontology.
+     */
+    private static final class Segment {
+        private final SubsumptionIndex subsumption;
+        private final Map<Field, FieldIndex> fields = new EnumMap<>(Field.class);
+        // terms by normalized value of every field, the whole label, synonym, description or id,
+        // for the exact searches
+        private final Map<Field, Map<String, int[]>> exactValues = new EnumMap<>(Field.class);
+
+        private Segment(SubsumptionIndex subsumption) {
+            this.subsumption = subsumption;
+            OntologyGraph graph = subsumption.getGraph();
+            Map<Field, FieldIndex.Builder> builders = new EnumMap<>(Field.class);
+            for (Field field : Field.values())
+                builders.put(field, new FieldIndex.Builder(graph.size()));
+            Map<Field, Map<String, List<Integer>>> values = new EnumMap<>(Field.class);
+            for (Field field : Field.values())
+                values.put(field, new HashMap<>());
+            for (int term = 0; term < graph.size(); term++) {
+                Term current = graph.getTerm(term);
+                Set<String> synonyms = new LinkedHashSet<>();
+                if (current.getSynonyms() != null)
+                    synonyms.addAll(Arrays.asList(current.getSynonyms()));
+                synonyms.addAll(current.getOboSynonyms().keySet());
+
+                builders.get(Field.LABEL).add(term, current.getLabel());
+                addExact(values, Field.LABEL, current.getLabel(), term);
+                for (String synonym : synonyms) {
+                    builders.get(Field.SYNONYM).add(term, synonym);
+                    addExact(values, Field.SYNONYM, synonym, term);
+                }
+                if (current.getDescription() != null)
+                    for (String description : current.getDescription()) {
+                        builders.get(Field.DESCRIPTION).add(term, description);
+                        addExact(values, Field.DESCRIPTION, description, term);
+                    }
+                for (Identifier id : Arrays.asList(current.getShortForm(), current.getTermOBOId(), current.getIri()))
+                    if (id != null && id.getIdentifier() != null) {
+                        builders.get(Field.ID).addKeyword(term, id.getIdentifier().toLowerCase(Locale.ROOT));
+                        addExact(values, Field.ID, id.getIdentifier(), term);
+                    }
+            }
+            builders.forEach((field, builder) -> fields.put(field, builder.build()));
+            values.forEach((field, terms) -> {
+                Map<String, int[]> exact = new HashMap<>(terms.size() * 2);
+                terms.forEach((value, ids) -> exact.put(value, ids.stream().mapToInt(Integer::intValue).toArray()));
+                exactValues.put(field, exact);
+            });
+        }
+
+        private static void addExact(Map<Field, Map<String, List<Integer>>> values, Field field, String value, int term) {
+            String normalized = AutocompleteIndex.normalize(value);
+            if (normalized.isEmpty())
+                return;
+            List<Integer> terms = values.get(field).computeIfAbsent(normalized, key -> new ArrayList<>());
+            if (terms.isEmpty() || terms.get(terms.size() - 1) != term)
+                terms.add(term);
+        }
+
+        /*
+         * Terms with a value equal to the normalized text in one of the fields, in increasing order.
+         */
+        private int[] exactMatches(String normalized, Set<Field> searched) {
+            Set<Integer> terms = new TreeSet<>();
+            for (Field field : searched)
+                for (int term : exactValues.get(field).getOrDefault(normalized, new int[0]))
+                    terms.add(term);
+            return terms.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        private OntologyGraph graph() {
+            return subsumption.getGraph();
+        }
+    }
+
+    /*
+     * Inverted index of one field: the terms containing every token with the number of occurrences.
+     */
+    private static final class FieldIndex {
+        private final Map<String, int[]> postings;
+        private final int[] lengths;
+        private final double averageLength;
+
+        private FieldIndex(Map<String, int[]> postings, int[] lengths) {
+            this.postings = postings;
+            this.lengths = lengths;
+            long total = 0;
+            int documents = 0;
+            for (int length : lengths) {
+                total += length;
+                if (length > 0)
+                    documents++;
+            }
+            this.averageLength = documents == 0 ? 1 : (double) total / documents;
+        }
+
+        private int documentFrequency(String token) {
+            int[] posting = postings.get(token);
+            return posting == null ? 0 : posting.length / 2;
+        }
+
+        /*
+         * Add the BM25 score of the tokens in this field to the scores of the terms.
+         */
+        private void score(List<String> tokens, double[] idf, double boost, double[] scores) {
+            for (int i = 0; i < tokens.size(); i++) {
+                int[] posting = postings.get(tokens.get(i));
+                if (posting == null)
+                    continue;
+                for (int entry = 0; entry < posting.length; entry += 2) {
+                    int term = posting[entry];
+                    int frequency = posting[entry + 1];
+                    double norm = K1 * (1 - B + B * lengths[term] / averageLength);
+                    scores[term] += boost * idf[i] * frequency * (K1 + 1) / (frequency + norm);
+                }
+            }
+        }
+
+        private static final class Builder {
+            // term, frequency pairs by token; the terms are added in increasing order
+            private final Map<String, int[]> postings = new HashMap<>();
+            private final Map<String, Integer> sizes = new HashMap<>();
+            private final int[] lengths;
+
+            private Builder(int terms) {
+                this.lengths = new int[terms];
+            }
+
+            private void add(int term, String text) {
+                addTokens(term, tokenize(text));
+            }
+
+            private void addKeyword(int term, String keyword) {
+                addTokens(term, Collections.singletonList(keyword));
+            }
+
+            private void addTokens(int term, List<String> tokens) {
+                lengths[term] += tokens.size();
+                for (String token : tokens) {
+                    int[] posting = postings.get(token);
+                    int size = sizes.getOrDefault(token, 0);
+                    if (posting != null && posting[size - 2] == term) {
+                        posting[size - 1]++;
+                        continue;
+                    }
+                    if (posting == null) {
+                        posting = new int[4];
+                        postings.put(token.intern(), posting);
+                    } else if (size == posting.length) {
+                        posting = Arrays.copyOf(posting, size * 2);
+                        postings.put(token, posting);
+                    }
+                    posting[size] = term;
+                    posting[size + 1] = 1;
+                    sizes.put(token, size + 2);
+                }
+            }
+
+            private FieldIndex build() {
+                postings.replaceAll((token, posting) -> Arrays.copyOf(posting, sizes.get(token)));
+                return new FieldIndex(postings, lengths);
+            }
+        }
+    }
+
+    private static final class Hit {
+        private final Segment segment;
+        private final int term;
+        private final double score;
+
+        private Hit(Segment segment, int term, double score) {
+            this.segment = segment;
+            this.term = term;
+            this.score = score;
+        }
+    }
+}
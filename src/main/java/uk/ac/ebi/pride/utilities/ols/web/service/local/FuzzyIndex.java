@@ -0,0 +1,167 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.local;
+
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Term;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typo tolerant lookup of terms by name: the terms with a label or synonym within an edit
+ * (Levenshtein) distance of a name, for names that are misspelled and not found by an exact search.
+ *
+ * The distinct normalized names of an {@link AutocompleteIndex} are the nodes of a BK-tree, where
+ * the children of a node are grouped by their distance to it. By the triangle inequality, the names
+ * within distance k of a query can only be under the children at distance d - k to d + k of a node
+ * at distance d, so a lookup with a small k only compares the query with a small part of the names.
+ * The matches are ranked by distance, then labels before synonyms and names of closer length first.
+ */
+public class FuzzyIndex {
+
+    private final AutocompleteIndex autocomplete;
+
+    // distinct names, and the names of the autocomplete index they stand for
+    private final String[] words;
+    private final int[] wordOffsets;
+    private final int[] wordNames;
+
+    // BK-tree over the words, node i is words[i] and node 0 the root
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final int[] parentDistance;
+
+    private FuzzyIndex(AutocompleteIndex autocomplete) {
+        this.autocomplete = autocomplete;
+        String[] names = autocomplete.names();
+        Map<String, List<Integer>> distinct = new LinkedHashMap<>();
+        for (int name = 0; name < names.length; name++)
+            distinct.computeIfAbsent(names[name], key -> new ArrayList<>()).add(name);
+
+        words = distinct.keySet().toArray(new String[0]);
+        wordOffsets = new int[words.length + 1];
+        wordNames = new int[names.length];
+        int size = 0;
+        for (int word = 0; word < words.length; word++) {
+            for (int name : distinct.get(words[word]))
+                wordNames[size++] = name;
+            wordOffsets[word + 1] = size;
+        }
+
+        firstChild = new int[words.length];
+        nextSibling = new int[words.length];
+        parentDistance = new int[words.length];
+        Arrays.fill(firstChild, -1);
+        Arrays.fill(nextSibling, -1);
+        int[] row = new int[0];
+        for (int word = 1; word < words.length; word++) {
+            int node = 0;
+            while (true) {
+                row = ensureCapacity(row, words[word].length());
+                int distance = distance(words[word], words[node], row);
+                int child = child(node, distance);
+                if (child < 0) {
+                    parentDistance[word] = distance;
+                    nextSibling[word] = firstChild[node];
+                    firstChild[node] = word;
+                    break;
+                }
+                node = child;
+            }
+        }
+    }
+
+    /**
+     * Index the labels and synonyms already normalized by an autocomplete index.
+     */
+    public static FuzzyIndex build(AutocompleteIndex autocomplete) {
+        return new FuzzyIndex(autocomplete);
+    }
+
+    public OntologyGraph getGraph() {
+        return autocomplete.getGraph();
+    }
+
+    /**
+     * @param name        name to look up, case and blanks are ignored
+     * @param maxDistance maximum number of inserted, deleted or replaced characters
+     * @param limit       maximum number of terms returned
+     * @return the terms with a label or synonym within the distance of the name, closest first.
+     */
+    public List<Term> search(String name, int maxDistance, int limit) {
+        String query = AutocompleteIndex.normalize(name);
+        if (query.isEmpty() || words.length == 0 || limit <= 0 || maxDistance < 0)
+            return new ArrayList<>();
+
+        String[] names = autocomplete.names();
+        int[] nameTerms = autocomplete.nameTerms();
+        boolean[] labels = autocomplete.labels();
+        Map<Integer, Long> ranks = new HashMap<>();
+        int[] row = new int[query.length() + 1];
+        int[] stack = new int[words.length];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            int distance = distance(query, words[node], row);
+            if (distance <= maxDistance) {
+                for (int i = wordOffsets[node]; i < wordOffsets[node + 1]; i++) {
+                    int match = wordNames[i];
+                    long rank = (long) distance << 33 | (labels[match] ? 0L : 1L << 32)
+                            | Math.abs(names[match].length() - query.length());
+                    ranks.merge(nameTerms[match], rank, Math::min);
+                }
+            }
+            for (int child = firstChild[node]; child >= 0; child = nextSibling[child])
+                if (Math.abs(parentDistance[child] - distance) <= maxDistance)
+                    stack[top++] = child;
+        }
+
+        List<Map.Entry<Integer, Long>> sorted = new ArrayList<>(ranks.entrySet());
+        sorted.sort(Map.Entry.<Integer, Long>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+        List<Term> terms = new ArrayList<>(Math.min(limit, sorted.size()));
+        for (int i = 0; i < sorted.size() && i < limit; i++)
+            terms.add(getGraph().getTerm(sorted.get(i).getKey()));
+        return terms;
+    }
+
+    private int child(int node, int distance) {
+        for (int child = firstChild[node]; child >= 0; child = nextSibling[child])
+            if (parentDistance[child] == distance)
+                return child;
+        return -1;
+    }
+
+    private static int[] ensureCapacity(int[] row, int length) {
+        return row.length > length ? row : new int[length + 1];
+    }
+
+    /*
+     * Levenshtein distance, with a single row of the matrix sized for a.
+     */
+    static int distance(String a, String b, int[] row) {
+        for (int i = 0; i <= a.length(); i++)
+            row[i] = i;
+        for (int j = 1; j <= b.length(); j++) {
+            int diagonal = row[0];
+            row[0] = j;
+            char c = b.charAt(j - 1);
+            for (int i = 1; i <= a.length(); i++) {
+                int above = row[i];
+                row[i] = Math.min(Math.min(row[i - 1], above) + 1, diagonal + (a.charAt(i - 1) == c ? 0 : 1));
+                diagonal = above;
+            }
+        }
+        return row[a.length()];
+    }
+
+    @Override
+    public String toString() {
+        return "FuzzyIndex{" +
+                "ontologyId='" + getGraph().getOntologyId() + '\'' +
+                ", names=" + words.length +
+                '}';
+    }
+}
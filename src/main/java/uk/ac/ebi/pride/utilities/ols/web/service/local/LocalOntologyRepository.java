@@ -0,0 +1,289 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.local;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.RestClientException;
+import uk.ac.ebi.pride.utilities.ols.web.service.annotation.AnnotationValueIndex;
+import uk.ac.ebi.pride.utilities.ols.web.service.annotation.NumericAnnotationIndex;
+import uk.ac.ebi.pride.utilities.ols.web.service.client.OLSClient;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Identifier;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.SearchOptions;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.SearchQuery;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Term;
+import uk.ac.ebi.pride.utilities.ols.web.service.utils.Lazy;
+import uk.ac.ebi.pride.utilities.ols.web.service.utils.SingleFlight;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local copies of the ontologies used by an application, downloaded once with
+ * {@link OntologyGraph#download(OLSClient, String)} and downloaded again when OLS reports a new version.
+ *
+ * The version of an ontology is read from the list of ontologies kept by the client (see
+ * {@link uk.ac.ebi.pride.utilities.ols.web.service.config.AbstractOLSWsConfig#getOntologyRegistryTtl()}),
+ * so checking it does not cost a request. When the version changes, the indexes of the new copy are
+ * rebuilt from the ones of the previous copy. Concurrent requests for an ontology that is being
+ * downloaded wait for the same download. A null or empty ontology id is answered with empty indexes.
+ */
+@Slf4j
+public class LocalOntologyRepository {
+
+    private static final Snapshot EMPTY = Snapshot.of(new OntologyGraph.OntologyGraphBuilder("").build());
+
+    private final OLSClient olsClient;
+
+    private final Map<String, Snapshot> ontologies = new ConcurrentHashMap<>();
+
+    private final SingleFlight<String, Snapshot> loads = new SingleFlight<>();
+
+    // segments of the ontologies searched so far, replaced when a new version is loaded
+    private final FullTextIndex fullText = new FullTextIndex();
+
+    /**
+     * @param olsClient client used to download the ontologies
+     */
+    public LocalOntologyRepository(OLSClient olsClient) {
+        this.olsClient = olsClient;
+    }
+
+    /**
+     * @param ontologyId id of the ontology
+     * @return the hierarchy of the current version of the ontology.
+     * @throws RestClientException if the ontology could not be downloaded.
+     */
+    public OntologyGraph getGraph(String ontologyId) throws RestClientException {
+        return snapshot(ontologyId).graph;
+    }
+
+    /**
+     * @param ontologyId id of the ontology
+     * @return the ancestors of the terms of the current version of the ontology.
+     * @throws RestClientException if the ontology could not be downloaded.
+     */
+    public SubsumptionIndex getSubsumptionIndex(String ontologyId) throws RestClientException {
+        return snapshot(ontologyId).subsumption;
+    }
+
+    /**
+     * @param ontologyId id of the ontology
+     * @return the name completion index of the current version of the ontology, built on first use.
+     * @throws RestClientException if the ontology could not be downloaded.
+     */
+    public AutocompleteIndex getAutocompleteIndex(String ontologyId) throws RestClientException {
+        return snapshot(ontologyId).autocomplete.get();
+    }
+
+    /**
+     * Local version of {@link OLSClient#getTermsByName(String, String, boolean)}: the terms with a
+     * label or synonym containing the partial name, best matches first.
+     *
+     * @param partialName text to look up in the names of the terms
+     * @param ontologyId  id of the ontology
+     * @param limit       maximum number of terms returned
+     * @return the matching terms.
+     * @throws RestClientException if the ontology could not be downloaded.
+     */
+    public List<Term> getTermsByName(String partialName, String ontologyId, int limit) throws RestClientException {
+        if (partialName == null || partialName.isEmpty())
+            return Collections.emptyList();
+        return getAutocompleteIndex(ontologyId).search(partialName, limit);
+    }
+
+    /**
+     * @param ontologyId id of the ontology
+     * @return the typo tolerant name index of the current version of the ontology, built on first use.
+     * @throws RestClientException if the ontology could not be downloaded.
+     */
+    public FuzzyIndex getFuzzyIndex(String ontologyId) throws RestClientException {
+        return snapshot(ontologyId).fuzzy.get();
+    }
+
+    /**
+     * The terms with a label or synonym close to a possibly misspelled name, for the names
+     * {@link OLSClient#getExactTermByName(String, String)} does not find.
+     *
+     * @param name        name to look up, case and blanks are ignored
+     * @param ontologyId  id of the ontology
+     * @param maxDistance maximum number of inserted, deleted or replaced characters
+     * @param limit       maximum number of terms returned
+     * @return the matching terms, closest first.
+     * @throws RestClientException if the ontology could not be downloaded.
+     */
+    public List<Term> findSimilarTerms(String name, String ontologyId, int maxDistance, int limit) throws RestClientException {
+        if (name == null || name.isEmpty())
+            return Collections.emptyList();
+        return getFuzzyIndex(ontologyId).search(name, maxDistance, limit);
+    }
+
+    /**
+     * @param ontologyId id of the ontology
+     * @return the numeric annotations of the current version of the ontology, kept by the client,
+     * see {@link OLSClient#getNumericAnnotationIndex(String)}.
+     * @throws RestClientException if the ontology could not be downloaded.
+     */
+    public NumericAnnotationIndex getNumericAnnotationIndex(String ontologyId) throws RestClientException {
+        return olsClient.getNumericAnnotationIndex(ontologyId);
+    }
+
+    /**
+     * @param ontologyId id of the ontology
+     * @return the annotation values of the current version of the ontology, kept by the client,
+     * see {@link OLSClient#getAnnotationValueIndex(String)}.
+     * @throws RestClientException if the ontology could not be downloaded.
+     */
+    public AnnotationValueIndex getAnnotationValueIndex(String ontologyId) throws RestClientException {
+        return olsClient.getAnnotationValueIndex(ontologyId);
+    }
+
+    /**
+     * @param ontologyId id of the ontology
+     * @return the cross references of the current version of the ontology, built on first use.
+     * @throws RestClientException if the ontology could not be downloaded.
+     */
+    public XrefIndex getXrefIndex(String ontologyId) throws RestClientException {
+        return snapshot(ontologyId).xrefs.get();
+    }
+
+    /**
+     * @param xrefs      xrefs as DB:ID, for example UNIMOD:35
+     * @param ontologyId id of the ontology
+     * @return the terms of the ontology with every xref.
+     * @throws RestClientException if the ontology could not be downloaded.
+     */
+    public Map<String, List<Term>> getTermsByXrefs(Collection<String> xrefs, String ontologyId) throws RestClientException {
+        return getXrefIndex(ontologyId).getTerms(xrefs);
+    }
+
+    /**
+     * The terms of an ontology related to a term of another one by their cross references, see
+     * {@link XrefIndex#mapTerm(Identifier, XrefIndex)}.
+     *
+     * @param termId         IRI, OBO id or short form of the term
+     * @param fromOntologyId id of the ontology of the term
+     * @param toOntologyId   id of the ontology to map the term to
+     * @return the terms of the other ontology.
+     * @throws RestClientException if an ontology could not be downloaded.
+     */
+    public List<Term> mapTerm(Identifier termId, String fromOntologyId, String toOntologyId) throws RestClientException {
+        return getXrefIndex(fromOntologyId).mapTerm(termId, getXrefIndex(toOntologyId));
+    }
+
+    /**
+     * Local version of {@link OLSClient#search(String, String, SearchOptions)} over the full text
+     * index of the ontologies, see {@link FullTextIndex}.
+     *
+     * @param text     text to search
+     * @param ontology ontology id, or comma separated ontology ids, null for the ontologies already loaded
+     * @param options  search options
+     * @return the matching terms, best scores first.
+     * @throws RestClientException if an ontology could not be downloaded.
+     */
+    public List<Term> search(String text, String ontology, SearchOptions options) throws RestClientException {
+        return fullTextIndex(ontology).search(text, ontology, options);
+    }
+
+    /**
+     * Local version of {@link OLSClient#getSearchQuery(int, String, String, SearchOptions)}, see
+     * {@link #search(String, String, SearchOptions)}.
+     */
+    public SearchQuery getSearchQuery(int start, String name, String ontology, SearchOptions options) throws RestClientException {
+        return fullTextIndex(ontology).getSearchQuery(start, name, ontology, options);
+    }
+
+    /**
+     * Download the ontology again, whatever its version.
+     *
+     * @param ontologyId id of the ontology
+     * @throws RestClientException if the ontology could not be downloaded.
+     */
+    public void refresh(String ontologyId) throws RestClientException {
+        if (isEmpty(ontologyId))
+            return;
+        String id = ontologyId.toLowerCase();
+        loads.execute(id, () -> load(id, ontologies.get(id)));
+    }
+
+    /**
+     * Forget the local copy of an ontology, it is downloaded again on its next use.
+     */
+    public void invalidate(String ontologyId) {
+        if (isEmpty(ontologyId))
+            return;
+        ontologies.remove(ontologyId.toLowerCase());
+        fullText.remove(ontologyId);
+    }
+
+    public OLSClient getOlsClient() {
+        return olsClient;
+    }
+
+    /*
+     * The full text index, with the current version of the requested ontologies indexed.
+     */
+    private FullTextIndex fullTextIndex(String ontology) {
+        if (!isEmpty(ontology)) {
+            for (String id : ontology.split(","))
+                fullText.index(snapshot(id.trim()).subsumption);
+        }
+        return fullText;
+    }
+
+    private Snapshot snapshot(String ontologyId) {
+        if (isEmpty(ontologyId))
+            return EMPTY;
+        String id = ontologyId.toLowerCase();
+        Snapshot current = ontologies.get(id);
+        if (current != null) {
+            String version = olsClient.getOntologyVersion(olsClient.getOntologyFromId(id));
+            if (version == null || version.equals(current.graph.getVersion()))
+                return current;
+        }
+        return loads.execute(id, () -> {
+            Snapshot loaded = ontologies.get(id);
+            if (loaded != null && loaded != current)
+                return loaded;
+            return load(id, loaded);
+        });
+    }
+
+    private static boolean isEmpty(String ontologyId) {
+        return ontologyId == null || ontologyId.trim().isEmpty();
+    }
+
+    private Snapshot load(String id, Snapshot previous) {
+        OntologyGraph graph = OntologyGraph.download(olsClient, id);
+        Snapshot snapshot = new Snapshot(graph,
+                previous == null ? SubsumptionIndex.build(graph) : previous.subsumption.rebuild(graph));
+        ontologies.put(id, snapshot);
+        if (fullText.getOntologies().contains(id))
+            fullText.index(snapshot.subsumption);
+        log.info("Loaded the ontology {} version {} with {} terms", id, graph.getVersion(), graph.size());
+        return snapshot;
+    }
+
+    /*
+     * A version of an ontology with its indexes, the ones after the subsumption index are built on first use.
+     */
+    private static final class Snapshot {
+        private final OntologyGraph graph;
+        private final SubsumptionIndex subsumption;
+        private final Lazy<AutocompleteIndex> autocomplete;
+        private final Lazy<FuzzyIndex> fuzzy;
+        private final Lazy<XrefIndex> xrefs;
+
+        private static Snapshot of(OntologyGraph graph) {
+            return new Snapshot(graph, SubsumptionIndex.build(graph));
+        }
+
+        private Snapshot(OntologyGraph graph, SubsumptionIndex subsumption) {
+            this.graph = graph;
+            this.subsumption = subsumption;
+            this.autocomplete = new Lazy<>(() -> AutocompleteIndex.build(graph));
+            this.fuzzy = new Lazy<>(() -> FuzzyIndex.build(autocomplete.get()));
+            this.xrefs = new Lazy<>(() -> XrefIndex.build(graph));
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.local;
+
+import org.springframework.web.client.RestClientException;
+import uk.ac.ebi.pride.utilities.ols.web.service.client.OLSClient;
+import uk.ac.ebi.pride.utilities.ols.web.service.client.TermHierarchy;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Identifier;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Term;
+import uk.ac.ebi.pride.utilities.ols.web.service.utils.Lazy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory copy of the hierarchy of an ontology, answering the children and parents questions
+ * without calling OLS. Every term gets a dense int id (its position in {@link #getTerm(int)}) and
+ * the edges are stored in compressed sparse row arrays for both directions: the children of the
+ * term {@code t} are {@code childIds[childOffsets[t] .. childOffsets[t + 1]]}, and the same for
+ * the parents.
+ *
+ * The graph is immutable once built, so it can be shared between threads. It follows the
+ * hierarchicalChildren/hierarchicalParents relations of OLS, see {@link #download(OLSClient, String)}.
+ */
+public class OntologyGraph implements TermHierarchy {
+
+    private final String ontologyId;
+    private final String version;
+    private final Term[] terms;
+
+    // dense id of every term by IRI, OBO id and short form
+    private final Map<String, Integer> termIds;
+
+    // the same ids by upper case key, for the ids read from other ontologies (xrefs)
+    private final Lazy<Map<String, Integer>> upperCaseTermIds = new Lazy<>(this::upperCaseTermIds);
+
+    private final int[] childOffsets;
+    private final int[] childIds;
+    private final int[] parentOffsets;
+    private final int[] parentIds;
+
+    private OntologyGraph(OntologyGraphBuilder builder, int[] childOffsets, int[] childIds,
+                          int[] parentOffsets, int[] parentIds) {
+        this.ontologyId = builder.ontologyId;
+        this.version = builder.version;
+        this.terms = builder.terms.toArray(new Term[0]);
+        this.termIds = new HashMap<>(builder.termIds);
+        this.childOffsets = childOffsets;
+        this.childIds = childIds;
+        this.parentOffsets = parentOffsets;
+        this.parentIds = parentIds;
+    }
+
+    /**
+     * Download an ontology: all the terms of the ontology are pulled, together with the parents of
+     * every term, see {@link OLSClient#getHierarchicalParents(String)}. The number of requests only
+     * depends on the number of pages of the ontology. Parents that are not terms of the ontology
+     * are left out.
+     *
+     * @param olsClient  client used to download the ontology
+     * @param ontologyId id of the ontology
+     * @return the graph of the ontology, tagged with its version, an empty graph if the id is null or empty.
+     * @throws RestClientException if there are problems connecting to the REST service.
+     */
+    public static OntologyGraph download(OLSClient olsClient, String ontologyId) throws RestClientException {
+        if (ontologyId == null || ontologyId.trim().isEmpty())
+            return new OntologyGraphBuilder("").build();
+        String version = olsClient.getOntologyVersion(olsClient.getOntologyFromId(ontologyId));
+        List<Term> terms = olsClient.getAllTermsFromOntology(ontologyId);
+        Map<String, List<String>> parents = olsClient.getHierarchicalParents(ontologyId);
+        OntologyGraphBuilder builder = new OntologyGraphBuilder(ontologyId.toLowerCase()).setVersion(version);
+        Map<String, Term> termsByIri = new HashMap<>();
+        for (Term term : terms) {
+            builder.addTerm(term);
+            if (term.getIri() != null)
+                termsByIri.put(term.getIri().getIdentifier(), term);
+        }
+        for (Term term : terms) {
+            if (term.getIri() == null)
+                continue;
+            for (String parentIri : parents.getOrDefault(term.getIri().getIdentifier(), Collections.emptyList())) {
+                Term parent = termsByIri.get(parentIri);
+                if (parent != null)
+                    builder.addChild(parent, term);
+            }
+        }
+        return builder.build();
+    }
+
+    public String getOntologyId() {
+        return ontologyId;
+    }
+
+    /**
+     * @return version of the ontology the graph was built from, null if unknown.
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * @return number of terms of the graph, the term ids go from 0 to size - 1.
+     */
+    public int size() {
+        return terms.length;
+    }
+
+    public Term getTerm(int termId) {
+        return terms[termId];
+    }
+
+    /**
+     * @param id IRI, OBO id or short form of a term
+     * @return the dense id of the term, -1 if the term is not part of the graph.
+     */
+    public int getTermId(String id) {
+        Integer termId = id == null ? null : termIds.get(id);
+        return termId == null ? -1 : termId;
+    }
+
+    public int getTermId(Identifier id) {
+        return id == null ? -1 : getTermId(id.getIdentifier());
+    }
+
+    /**
+     * Like {@link #getTermId(String)} without case, for the ids written by other ontologies
+     * ("UNIMOD:35" for "unimod:35", "ORPHANET:558" for "Orphanet:558").
+     *
+     * @param id IRI, OBO id or short form of a term, in any case
+     * @return the dense id of the term, the lowest one if several ids only differ by case, -1 if
+     * the term is not part of the graph.
+     */
+    public int getTermIdIgnoreCase(String id) {
+        int termId = getTermId(id);
+        if (termId >= 0 || id == null)
+            return termId;
+        Integer upperCaseTermId = upperCaseTermIds.get().get(id.toUpperCase(Locale.ROOT));
+        return upperCaseTermId == null ? -1 : upperCaseTermId;
+    }
+
+    /**
+     * @param id IRI, OBO id or short form of a term
+     * @return the term, null if it is not part of the graph.
+     */
+    public Term getTerm(String id) {
+        int termId = getTermId(id);
+        return termId < 0 ? null : terms[termId];
+    }
+
+    /**
+     * @param id IRI, OBO id or short form of a term, in any case
+     * @return the term, null if it is not part of the graph.
+     */
+    public Term getTermIgnoreCase(String id) {
+        int termId = getTermIdIgnoreCase(id);
+        return termId < 0 ? null : terms[termId];
+    }
+
+    private Map<String, Integer> upperCaseTermIds() {
+        Map<String, Integer> upperCase = new HashMap<>(termIds.size() * 2);
+        termIds.forEach((id, termId) -> upperCase.merge(id.toUpperCase(Locale.ROOT), termId, Math::min));
+        return upperCase;
+    }
+
+    public int[] getChildIds(int termId) {
+        return Arrays.copyOfRange(childIds, childOffsets[termId], childOffsets[termId + 1]);
+    }
+
+    public int[] getParentIds(int termId) {
+        return Arrays.copyOfRange(parentIds, parentOffsets[termId], parentOffsets[termId + 1]);
+    }
+
+    /*
+     * Raw rows of the graph for the indexes of this package, they must not be modified.
+     */
+    int[] parentOffsets() {
+        return parentOffsets;
+    }
+
+    int[] parentIds() {
+        return parentIds;
+    }
+
+    int[] childOffsets() {
+        return childOffsets;
+    }
+
+    int[] childIds() {
+        return childIds;
+    }
+
+    @Override
+    public List<Term> getTermChildren(Identifier termId, String ontologyId, int distance) {
+        return new ArrayList<>(getTermChildrenWithDistance(termId, ontologyId, distance).keySet());
+    }
+
+    @Override
+    public List<Term> getTermParents(Identifier termId, String ontologyId, int distance) {
+        return new ArrayList<>(getTermParentsWithDistance(termId, ontologyId, distance).keySet());
+    }
+
+    @Override
+    public Map<Term, Integer> getTermChildrenWithDistance(Identifier termId, String ontologyId, int distance) {
+        return traverse(termId, ontologyId, distance, childOffsets, childIds);
+    }
+
+    @Override
+    public Map<Term, Integer> getTermParentsWithDistance(Identifier termId, String ontologyId, int distance) {
+        return traverse(termId, ontologyId, distance, parentOffsets, parentIds);
+    }
+
+    /*
+     * Breadth-first walk from a term, every term is returned once with its minimum distance.
+     */
+    private Map<Term, Integer> traverse(Identifier id, String ontologyId, int distance, int[] offsets, int[] edges) {
+        Map<Term, Integer> found = new LinkedHashMap<>();
+        int start = getTermId(id);
+        if (start < 0 || (ontologyId != null && !ontologyId.equalsIgnoreCase(this.ontologyId)))
+            return found;
+        boolean unbounded = distance < 0 || distance == Integer.MAX_VALUE;
+        BitSet visited = new BitSet(terms.length);
+        visited.set(start);
+        int[] frontier = {start};
+        int frontierSize = 1;
+        for (int level = 1; (unbounded || level <= distance) && frontierSize > 0; level++) {
+            int[] next = new int[16];
+            int nextSize = 0;
+            for (int i = 0; i < frontierSize; i++) {
+                int term = frontier[i];
+                for (int edge = offsets[term]; edge < offsets[term + 1]; edge++) {
+                    int related = edges[edge];
+                    if (visited.get(related))
+                        continue;
+                    visited.set(related);
+                    found.put(terms[related], level);
+                    if (nextSize == next.length)
+                        next = Arrays.copyOf(next, nextSize * 2);
+                    next[nextSize++] = related;
+                }
+            }
+            frontier = next;
+            frontierSize = nextSize;
+        }
+        return found;
+    }
+
+    /**
+     * @return the key identifying a term across versions of the ontology: its IRI, or its OBO id
+     * for a term without IRI.
+     */
+    static String keyOf(Term term) {
+        if (term == null)
+            return null;
+        if (term.getIri() != null && term.getIri().getIdentifier() != null)
+            return term.getIri().getIdentifier();
+        if (term.getTermOBOId() != null)
+            return term.getTermOBOId().getIdentifier();
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "OntologyGraph{" +
+                "ontologyId='" + ontologyId + '\'' +
+                ", version='" + version + '\'' +
+                ", terms=" + terms.length +
+                ", edges=" + childIds.length +
+                '}';
+    }
+
+    public static class OntologyGraphBuilder {
+
+        private final String ontologyId;
+        private String version;
+        private final List<Term> terms = new ArrayList<>();
+        private final Map<String, Integer> termIds = new HashMap<>();
+
+        // edges encoded as parent id << 32 | child id
+        private long[] edges = new long[64];
+        private int edgeCount;
+
+        public OntologyGraphBuilder(String ontologyId) {
+            this.ontologyId = ontologyId;
+        }
+
+        public OntologyGraphBuilder setVersion(String version) {
+            this.version = version;
+            return this;
+        }
+
+        /**
+         * Add a term to the graph, a term already added (same IRI) is ignored.
+         */
+        public OntologyGraphBuilder addTerm(Term term) {
+            termId(term);
+            return this;
+        }
+
+        /**
+         * Add a child relation, the terms not added yet are added to the graph.
+         */
+        public OntologyGraphBuilder addChild(Term parent, Term child) {
+            int parentId = termId(parent);
+            int childId = termId(child);
+            if (parentId < 0 || childId < 0 || parentId == childId)
+                return this;
+            if (edgeCount == edges.length)
+                edges = Arrays.copyOf(edges, edgeCount * 2);
+            edges[edgeCount++] = ((long) parentId << 32) | childId;
+            return this;
+        }
+
+        public OntologyGraph build() {
+            int size = terms.size();
+            long[] sorted = Arrays.copyOf(edges, edgeCount);
+            Arrays.sort(sorted);
+            int unique = 0;
+            for (int i = 0; i < sorted.length; i++)
+                if (i == 0 || sorted[i] != sorted[i - 1])
+                    sorted[unique++] = sorted[i];
+
+            // the edges are sorted by parent, so the children rows are filled in order
+            int[] childOffsets = new int[size + 1];
+            int[] childIds = new int[unique];
+            int[] parentOffsets = new int[size + 1];
+            int[] parentIds = new int[unique];
+            for (int i = 0; i < unique; i++) {
+                childOffsets[(int) (sorted[i] >>> 32) + 1]++;
+                parentOffsets[(int) sorted[i] + 1]++;
+            }
+            for (int term = 0; term < size; term++) {
+                childOffsets[term + 1] += childOffsets[term];
+                parentOffsets[term + 1] += parentOffsets[term];
+            }
+            int[] parentFill = Arrays.copyOf(parentOffsets, size);
+            for (int i = 0; i < unique; i++) {
+                int parent = (int) (sorted[i] >>> 32);
+                int child = (int) sorted[i];
+                childIds[i] = child;
+                parentIds[parentFill[child]++] = parent;
+            }
+            return new OntologyGraph(this, childOffsets, childIds, parentOffsets, parentIds);
+        }
+
+        private int termId(Term term) {
+            String key = keyOf(term);
+            if (key == null)
+                return -1;
+            Integer termId = termIds.get(key);
+            if (termId != null)
+                return termId;
+            termId = terms.size();
+            terms.add(term);
+            termIds.put(key, termId);
+            if (term.getTermOBOId() != null && term.getTermOBOId().getIdentifier() != null)
+                termIds.putIfAbsent(term.getTermOBOId().getIdentifier(), termId);
+            if (term.getShortForm() != null && term.getShortForm().getIdentifier() != null)
+                termIds.putIfAbsent(term.getShortForm().getIdentifier(), termId);
+            return termId;
+        }
+
+    }
+}
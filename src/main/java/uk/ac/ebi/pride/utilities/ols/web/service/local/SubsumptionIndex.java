@@ -0,0 +1,226 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.local;
+
+import lombok.extern.slf4j.Slf4j;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Identifier;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Term;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transitive closure of the parents of every term of an {@link OntologyGraph}, answering
+ * "is this term a descendant of X" with a lookup in a {@link CompactBitmap} instead of a search.
+ *
+ * The ancestor sets are expressed in stable term ids: every IRI keeps the id it got in the first
+ * version of the ontology indexed, and new IRIs get new ids. When a new version of the ontology
+ * is indexed with {@link #rebuild(OntologyGraph)}, only the terms whose parents changed, and their
+ * descendants, get their ancestors computed again; the sets of the other terms are reused.
+ */
+@Slf4j
+public class SubsumptionIndex {
+
+    private final OntologyGraph graph;
+
+    // stable id of every IRI indexed so far, shared by the versions of the index and never modified
+    private final Map<String, Integer> stableIds;
+    private final int[] stableIdOfTerm;
+    private final int[] termOfStableId;
+
+    // ancestors in stable ids, by graph term id
+    private final CompactBitmap[] ancestors;
+    private final int rebuiltTerms;
+
+    private SubsumptionIndex(OntologyGraph graph, SubsumptionIndex previous) {
+        this.graph = graph;
+        int size = graph.size();
+        Map<String, Integer> ids = previous == null ? new HashMap<>() : new HashMap<>(previous.stableIds);
+        stableIdOfTerm = new int[size];
+        for (int term = 0; term < size; term++)
+            stableIdOfTerm[term] = ids.computeIfAbsent(OntologyGraph.keyOf(graph.getTerm(term)), key -> ids.size());
+        stableIds = ids;
+        termOfStableId = new int[ids.size()];
+        Arrays.fill(termOfStableId, -1);
+        for (int term = 0; term < size; term++)
+            termOfStableId[stableIdOfTerm[term]] = term;
+
+        BitSet changed = changedTerms(previous);
+        ancestors = new CompactBitmap[size];
+        int[] visited = new int[size];
+        int[] queue = new int[Math.max(1, size)];
+        for (int term = 0; term < size; term++) {
+            if (changed.get(term))
+                ancestors[term] = computeAncestors(term, visited, queue);
+            else
+                ancestors[term] = previous.ancestors[previous.termOfStableId[stableIdOfTerm[term]]];
+        }
+        rebuiltTerms = changed.cardinality();
+    }
+
+    /**
+     * Index the ancestors of all the terms of a graph.
+     */
+    public static SubsumptionIndex build(OntologyGraph graph) {
+        return new SubsumptionIndex(graph, null);
+    }
+
+    /**
+     * Index a new version of the ontology, reusing the ancestor sets of the terms whose ancestors
+     * did not change.
+     *
+     * @param newGraph graph of the new version of the ontology
+     * @return the index of the new graph, this index if the graph is the one already indexed.
+     */
+    public SubsumptionIndex rebuild(OntologyGraph newGraph) {
+        if (newGraph == graph)
+            return this;
+        SubsumptionIndex index = new SubsumptionIndex(newGraph, this);
+        log.debug("Rebuilt the ancestors of {} out of {} terms of {}", index.rebuiltTerms, newGraph.size(), newGraph.getOntologyId());
+        return index;
+    }
+
+    public OntologyGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return number of terms whose ancestors were computed when this index was built, the others
+     * were reused from the previous version.
+     */
+    public int getRebuiltTerms() {
+        return rebuiltTerms;
+    }
+
+    /**
+     * @param termId     IRI, OBO id or short form of a term
+     * @param ancestorId IRI, OBO id or short form of the possible ancestor
+     * @return true if the term is a descendant (at any distance) of the ancestor; a term is not
+     * a descendant of itself and false is returned when any of the terms is unknown.
+     */
+    public boolean isDescendantOf(String termId, String ancestorId) {
+        return isDescendantOf(graph.getTermId(termId), graph.getTermId(ancestorId));
+    }
+
+    public boolean isDescendantOf(Identifier termId, Identifier ancestorId) {
+        return isDescendantOf(graph.getTermId(termId), graph.getTermId(ancestorId));
+    }
+
+    /**
+     * @param terms      terms to filter
+     * @param ancestorId IRI, OBO id or short form of the ancestor
+     * @return the terms that are descendants of the ancestor, in their original order.
+     */
+    public List<Term> filterDescendants(Collection<Term> terms, String ancestorId) {
+        int ancestor = graph.getTermId(ancestorId);
+        List<Term> descendants = new ArrayList<>();
+        if (ancestor < 0)
+            return descendants;
+        for (Term term : terms)
+            if (term != null && isDescendantOf(graph.getTermId(OntologyGraph.keyOf(term)), ancestor))
+                descendants.add(term);
+        return descendants;
+    }
+
+    public List<Term> filterDescendants(Collection<Term> terms, Identifier ancestorId) {
+        return filterDescendants(terms, ancestorId == null ? null : ancestorId.getIdentifier());
+    }
+
+    /**
+     * @param termId IRI, OBO id or short form of a term
+     * @return number of ancestors of the term, 0 if it is unknown.
+     */
+    public int getAncestorCount(String termId) {
+        int term = graph.getTermId(termId);
+        return term < 0 ? 0 : ancestors[term].cardinality();
+    }
+
+    private boolean isDescendantOf(int term, int ancestor) {
+        return term >= 0 && ancestor >= 0 && term != ancestor && ancestors[term].contains(stableIdOfTerm[ancestor]);
+    }
+
+    /*
+     * Terms that are new or whose parents changed since the previous version, plus all their
+     * descendants. Every term has changed when there is no previous version.
+     */
+    private BitSet changedTerms(SubsumptionIndex previous) {
+        int size = graph.size();
+        BitSet changed = new BitSet(size);
+        if (previous == null) {
+            changed.set(0, size);
+            return changed;
+        }
+        int[] queue = new int[Math.max(1, size)];
+        int queueSize = 0;
+        for (int term = 0; term < size; term++) {
+            int stableId = stableIdOfTerm[term];
+            int oldTerm = stableId < previous.termOfStableId.length ? previous.termOfStableId[stableId] : -1;
+            if (oldTerm < 0 || !Arrays.equals(stableParents(this, term), stableParents(previous, oldTerm))) {
+                changed.set(term);
+                queue[queueSize++] = term;
+            }
+        }
+        int[] childOffsets = graph.childOffsets();
+        int[] childIds = graph.childIds();
+        for (int head = 0; head < queueSize; head++) {
+            int term = queue[head];
+            for (int edge = childOffsets[term]; edge < childOffsets[term + 1]; edge++) {
+                int child = childIds[edge];
+                if (!changed.get(child)) {
+                    changed.set(child);
+                    queue[queueSize++] = child;
+                }
+            }
+        }
+        return changed;
+    }
+
+    private static int[] stableParents(SubsumptionIndex index, int term) {
+        int[] offsets = index.graph.parentOffsets();
+        int[] parents = index.graph.parentIds();
+        int[] stable = new int[offsets[term + 1] - offsets[term]];
+        for (int edge = offsets[term]; edge < offsets[term + 1]; edge++)
+            stable[edge - offsets[term]] = index.stableIdOfTerm[parents[edge]];
+        Arrays.sort(stable);
+        return stable;
+    }
+
+    /*
+     * Breadth-first walk of the parents of a term. The visited array holds the term + 1 the walk
+     * was done for, so it does not need to be cleared between terms.
+     */
+    private CompactBitmap computeAncestors(int start, int[] visited, int[] queue) {
+        int[] offsets = graph.parentOffsets();
+        int[] parents = graph.parentIds();
+        int mark = start + 1;
+        visited[start] = mark;
+        int queueSize = 0;
+        queue[queueSize++] = start;
+        for (int head = 0; head < queueSize; head++) {
+            int term = queue[head];
+            for (int edge = offsets[term]; edge < offsets[term + 1]; edge++) {
+                int parent = parents[edge];
+                if (visited[parent] != mark) {
+                    visited[parent] = mark;
+                    queue[queueSize++] = parent;
+                }
+            }
+        }
+        int[] found = new int[queueSize - 1];
+        for (int i = 1; i < queueSize; i++)
+            found[i - 1] = stableIdOfTerm[queue[i]];
+        Arrays.sort(found);
+        return CompactBitmap.of(found, found.length);
+    }
+
+    @Override
+    public String toString() {
+        return "SubsumptionIndex{" +
+                "graph=" + graph +
+                ", rebuiltTerms=" + rebuiltTerms +
+                '}';
+    }
+}
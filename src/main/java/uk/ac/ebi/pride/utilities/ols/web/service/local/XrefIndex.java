@@ -0,0 +1,209 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.local;
+
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Annotation;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Identifier;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.OBOXRef;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.OboDefinitionCitation;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Term;
+import uk.ac.ebi.pride.utilities.ols.web.service.utils.Constants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cross references of the terms of a local copy of an ontology, indexed from the database and id
+ * they point to: "which terms have the xref UNIMOD:35".
+ *
+ * The xrefs are read from the obo_xref of the terms, the xrefs of their definition citations and
+ * their database_cross_reference annotations ("DB:ID" values). Databases and ids are compared
+ * without case, and the xrefs of every term are kept parsed so mapping a term to another ontology
+ * does not split strings again.
+ */
+public class XrefIndex {
+
+    private final OntologyGraph graph;
+
+    // term ids by database and id, both upper case
+    private final Map<String, Map<String, int[]>> termsByXref;
+
+    // xrefs of every term as DB:ID, upper case
+    private final String[][] termXrefs;
+
+    private XrefIndex(OntologyGraph graph, Map<String, Map<String, int[]>> termsByXref, String[][] termXrefs) {
+        this.graph = graph;
+        this.termsByXref = termsByXref;
+        this.termXrefs = termXrefs;
+    }
+
+    /**
+     * Index the cross references of all the terms of a graph.
+     */
+    public static XrefIndex build(OntologyGraph graph) {
+        Map<String, Map<String, BitSet>> terms = new HashMap<>();
+        String[][] termXrefs = new String[graph.size()][];
+        for (int term = 0; term < graph.size(); term++) {
+            Set<String> xrefs = new LinkedHashSet<>();
+            Term current = graph.getTerm(term);
+            addXrefs(current.getOboXRefs(), xrefs);
+            if (current.getOboDefinitionCitation() != null)
+                for (OboDefinitionCitation citation : current.getOboDefinitionCitation())
+                    if (citation != null)
+                        addXrefs(citation.getOboXrefs(), xrefs);
+            List<String> references = current.getAnnotation() == null ? null
+                    : current.getAnnotation().getAnnotation(Annotation.AnnotationType.DATABASE_CROSS_REFERENCE.getValue());
+            if (references != null)
+                for (String reference : references) {
+                    String[] xref = parse(reference);
+                    if (xref != null)
+                        xrefs.add(xref[0] + Constants.REFERENCE_SEPARATOR + xref[1]);
+                }
+            termXrefs[term] = xrefs.toArray(new String[0]);
+            for (String xref : termXrefs[term]) {
+                String[] parts = parse(xref);
+                terms.computeIfAbsent(parts[0], key -> new HashMap<>())
+                        .computeIfAbsent(parts[1], key -> new BitSet()).set(term);
+            }
+        }
+        Map<String, Map<String, int[]>> termsByXref = new HashMap<>();
+        terms.forEach((database, ids) -> {
+            Map<String, int[]> termIds = new HashMap<>(ids.size() * 2);
+            ids.forEach((id, bits) -> termIds.put(id, bits.stream().toArray()));
+            termsByXref.put(database, termIds);
+        });
+        return new XrefIndex(graph, termsByXref, termXrefs);
+    }
+
+    public OntologyGraph getGraph() {
+        return graph;
+    }
+
+    public String getVersion() {
+        return graph.getVersion();
+    }
+
+    /**
+     * @return the databases referenced by the terms, upper case.
+     */
+    public Set<String> getDatabases() {
+        return Collections.unmodifiableSet(termsByXref.keySet());
+    }
+
+    /**
+     * @param database database of the xref, for example UNIMOD
+     * @param id       id of the xref in the database, for example 35
+     * @return the terms with the xref, in the order of the ontology.
+     */
+    public List<Term> getTerms(String database, String id) {
+        if (database == null || id == null)
+            return new ArrayList<>();
+        Map<String, int[]> ids = termsByXref.get(database.trim().toUpperCase(Locale.ROOT));
+        int[] terms = ids == null ? null : ids.get(id.trim().toUpperCase(Locale.ROOT));
+        return terms == null ? new ArrayList<>() : toTerms(terms);
+    }
+
+    /**
+     * @param xref xref as DB:ID, for example UNIMOD:35
+     * @return the terms with the xref, in the order of the ontology.
+     */
+    public List<Term> getTerms(String xref) {
+        String[] parts = parse(xref);
+        return parts == null ? new ArrayList<>() : getTerms(parts[0], parts[1]);
+    }
+
+    /**
+     * @param xrefs xrefs as DB:ID
+     * @return the terms of every xref, in the order of the xrefs.
+     */
+    public Map<String, List<Term>> getTerms(Collection<String> xrefs) {
+        Map<String, List<Term>> terms = new LinkedHashMap<>();
+        for (String xref : xrefs)
+            terms.put(xref, getTerms(xref));
+        return terms;
+    }
+
+    /**
+     * @param termId IRI, OBO id or short form of a term
+     * @return the xrefs of the term as DB:ID, upper case, empty if the term is not indexed.
+     */
+    public List<String> getXrefs(Identifier termId) {
+        int term = graph.getTermId(termId);
+        return term < 0 ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(termXrefs[term]));
+    }
+
+    /**
+     * Map a term of this ontology to the terms of another one: the terms of the other ontology
+     * sharing an xref with the term, the terms the term has an xref to, and the terms with an xref
+     * to the term.
+     *
+     * @param termId IRI, OBO id or short form of a term of this ontology
+     * @param target index of the other ontology
+     * @return the terms of the other ontology, in the order of the xrefs of the term.
+     */
+    public List<Term> mapTerm(Identifier termId, XrefIndex target) {
+        int term = graph.getTermId(termId);
+        if (term < 0)
+            return new ArrayList<>();
+        Set<Term> terms = new LinkedHashSet<>();
+        for (String xref : termXrefs[term]) {
+            Term referenced = target.graph.getTermIgnoreCase(xref);
+            if (referenced != null)
+                terms.add(referenced);
+            terms.addAll(target.getTerms(xref));
+        }
+        String oboId = graph.getTerm(term).getTermOBOId() == null ? null : graph.getTerm(term).getTermOBOId().getIdentifier();
+        if (oboId != null)
+            terms.addAll(target.getTerms(oboId));
+        return new ArrayList<>(terms);
+    }
+
+    private List<Term> toTerms(int[] ids) {
+        List<Term> terms = new ArrayList<>(ids.length);
+        for (int id : ids)
+            terms.add(graph.getTerm(id));
+        return terms;
+    }
+
+    private static void addXrefs(OBOXRef[] oboXRefs, Set<String> xrefs) {
+        if (oboXRefs == null)
+            return;
+        for (OBOXRef xref : oboXRefs) {
+            if (xref == null || xref.getDatabase() == null || xref.getId() == null)
+                continue;
+            String database = xref.getDatabase().trim().toUpperCase(Locale.ROOT);
+            String id = xref.getId().trim().toUpperCase(Locale.ROOT);
+            if (!database.isEmpty() && !id.isEmpty())
+                xrefs.add(database + Constants.REFERENCE_SEPARATOR + id);
+        }
+    }
+
+    /*
+     * Database and id of a DB:ID xref, upper case, null if it is not one.
+     */
+    private static String[] parse(String xref) {
+        int separator = xref == null ? -1 : xref.indexOf(Constants.REFERENCE_SEPARATOR);
+        if (separator <= 0)
+            return null;
+        String database = xref.substring(0, separator).trim().toUpperCase(Locale.ROOT);
+        String id = xref.substring(separator + 1).trim().toUpperCase(Locale.ROOT);
+        return database.isEmpty() || id.isEmpty() ? null : new String[]{database.intern(), id};
+    }
+
+    @Override
+    public String toString() {
+        return "XrefIndex{" +
+                "ontologyId='" + graph.getOntologyId() + '\'' +
+                ", version='" + graph.getVersion() + '\'' +
+                ", databases=" + termsByXref.size() +
+                '}';
+    }
+}
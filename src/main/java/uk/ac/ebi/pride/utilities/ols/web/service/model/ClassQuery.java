@@ -0,0 +1,56 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One page of the classes of an ontology, as returned by the OLS4 v2 API
+ * (/api/v2/ontologies/{id}/classes).
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ClassQuery {
+
+    @JsonProperty("page")
+    private int page;
+
+    @JsonProperty("totalPages")
+    private int totalPages;
+
+    @JsonProperty("totalElements")
+    private int totalElements;
+
+    @JsonProperty("elements")
+    private OntologyClass[] elements;
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    public void setTotalPages(int totalPages) {
+        this.totalPages = totalPages;
+    }
+
+    public int getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(int totalElements) {
+        this.totalElements = totalElements;
+    }
+
+    public OntologyClass[] getElements() {
+        return elements;
+    }
+
+    public void setElements(OntologyClass[] elements) {
+        this.elements = elements;
+    }
+}
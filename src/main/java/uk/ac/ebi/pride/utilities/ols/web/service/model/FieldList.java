@@ -17,8 +17,9 @@ public class FieldList implements Joinable {
     private String score;
     private String ontologyIri;
     private String isDefiningOntology;
+    private String isObsolete;
 
-    private FieldList(String iri, String label, String shortForm, String oboId, String ontologyName, String ontologyPrefix, String description, String type, String synonym, String score, String ontologyIri, String isDefiningOntology) {
+    private FieldList(String iri, String label, String shortForm, String oboId, String ontologyName, String ontologyPrefix, String description, String type, String synonym, String score, String ontologyIri, String isDefiningOntology, String isObsolete) {
         this.iri = iri;
         this.label = label;
         this.shortForm = shortForm;
@@ -31,6 +32,7 @@ public class FieldList implements Joinable {
         this.score = score;
         this.ontologyIri = ontologyIri;
         this.isDefiningOntology = isDefiningOntology;
+        this.isObsolete = isObsolete;
     }
 
     private String getIri() {
@@ -81,6 +83,10 @@ public class FieldList implements Joinable {
         return isDefiningOntology;
     }
 
+    private String getIsObsolete() {
+        return isObsolete;
+    }
+
 
     @Override
     public String toString() {
@@ -101,12 +107,13 @@ public class FieldList implements Joinable {
         private String score;
         private String ontologyIri;
         private String isDefiningOntology;
+        private String isObsolete;
 
         public FieldListBuilder() {
         }
 
         public FieldList build() {
-            return new FieldList(iri, label, shortForm, oboId, ontologyName, ontologyPrefix, description, type, synonym, score, ontologyIri, isDefiningOntology);
+            return new FieldList(iri, label, shortForm, oboId, ontologyName, ontologyPrefix, description, type, synonym, score, ontologyIri, isDefiningOntology, isObsolete);
         }
 
         public FieldListBuilder setIri() {
@@ -169,6 +176,11 @@ public class FieldList implements Joinable {
             return this;
         }
 
+        public FieldListBuilder setIsObsolete() {
+            this.isObsolete = "is_obsolete";
+            return this;
+        }
+
 
     }
 
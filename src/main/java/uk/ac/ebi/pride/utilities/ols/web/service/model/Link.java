@@ -21,9 +21,11 @@ public class Link {
         PARENTS("parents"),
         ALL_PARENTS("hierarchicalParents"),
         ANCESTORS("ancestors"),
+        ALL_ANCESTORS("hierarchicalAncestors"),
         CHILDREN("children"),
         ALL_CHILDREN("hierarchicalChildren"),
         DESCENDANTS("descendants"),
+        ALL_DESCENDANTS("hierarchicalDescendants"),
         GRAPH("graph"),
         NEXT("next"),
         LAST("last"),
@@ -92,6 +94,30 @@ public class Link {
         return null;
     }
 
+    public Href getAncestorsRef(){
+        if(links.containsKey(LinkOption.ANCESTORS.getValue()))
+            return links.get(LinkOption.ANCESTORS.getValue());
+        return null;
+    }
+
+    public Href getAllAncestorsRef(){
+        if(links.containsKey(LinkOption.ALL_ANCESTORS.getValue()))
+            return links.get(LinkOption.ALL_ANCESTORS.getValue());
+        return null;
+    }
+
+    public Href getDescendantsRef(){
+        if(links.containsKey(LinkOption.DESCENDANTS.getValue()))
+            return links.get(LinkOption.DESCENDANTS.getValue());
+        return null;
+    }
+
+    public Href getAllDescendantsRef(){
+        if(links.containsKey(LinkOption.ALL_DESCENDANTS.getValue()))
+            return links.get(LinkOption.ALL_DESCENDANTS.getValue());
+        return null;
+    }
+
     public Href next(){
         if(links.containsKey(LinkOption.NEXT.getValue()))
             return links.get(LinkOption.NEXT.getValue());
@@ -9,9 +9,6 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class ObsoleteTerm extends Term {
 
-    @JsonProperty("is_obsolete")
-    private boolean obsolete;
-
     @JsonProperty("term_replaced_by")
     private String termReplacedBy;
 
@@ -21,18 +18,10 @@ public class ObsoleteTerm extends Term {
                 OboDefinitionCitation[] oboDefinitionCitation,
                 Annotation annotation, boolean obsolete, String termReplacedBy) {
         super(iri, label, description, shortForm, oboId, ontologyName, score, ontologyIri, definedOntology, oboDefinitionCitation, annotation);
-        this.obsolete = obsolete;
+        setObsolete(obsolete);
         this.termReplacedBy = termReplacedBy;
     }
 
-    public boolean isObsolete() {
-        return obsolete;
-    }
-
-    public void setObsolete(boolean obsolete) {
-        this.obsolete = obsolete;
-    }
-
     public String getTermReplacedBy() {
         return termReplacedBy;
     }
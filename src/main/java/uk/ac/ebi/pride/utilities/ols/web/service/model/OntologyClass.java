@@ -0,0 +1,55 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A class of the OLS4 v2 API, only the fields needed to copy the hierarchy of an ontology are read.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OntologyClass {
+
+    @JsonProperty("iri")
+    private String iri;
+
+    private List<String> hierarchicalParents = Collections.emptyList();
+
+    public String getIri() {
+        return iri;
+    }
+
+    public void setIri(String iri) {
+        this.iri = iri;
+    }
+
+    /**
+     * @return IRIs of the hierarchical parents (is_a and part_of like relations) of the class.
+     */
+    public List<String> getHierarchicalParents() {
+        return hierarchicalParents;
+    }
+
+    public void setHierarchicalParents(List<String> hierarchicalParents) {
+        this.hierarchicalParents = hierarchicalParents;
+    }
+
+    /*
+     * OLS4 returns a single value or an array, and every value is either the IRI or an object
+     * with the IRI as "value" (when the relation is reified).
+     */
+    @JsonProperty("hierarchicalParent")
+    private void readHierarchicalParent(JsonNode node) {
+        List<String> parents = new ArrayList<>();
+        for (JsonNode value : node.isArray() ? node : Collections.singletonList(node)) {
+            JsonNode iriNode = value.isObject() ? value.get("value") : value;
+            if (iriNode != null && iriNode.isTextual())
+                parents.add(iriNode.asText());
+        }
+        hierarchicalParents = parents;
+    }
+}
@@ -0,0 +1,167 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.model;
+
+/**
+ * Options of a search in OLS: the fields searched and returned, the size and number of the result
+ * pages and the filters. Instances are immutable, so the same options can be used by many threads
+ * sharing one client.
+ */
+public class SearchOptions {
+
+    private final String queryFields;
+    private final String fieldList;
+    private final int pageSize;
+    private final int pageLimit;
+    private final boolean exact;
+    private final boolean obsolete;
+    private final String childrenOf;
+
+    private SearchOptions(SearchOptionsBuilder builder) {
+        this.queryFields = builder.queryFields;
+        this.fieldList = builder.fieldList;
+        this.pageSize = builder.pageSize;
+        this.pageLimit = builder.pageLimit;
+        this.exact = builder.exact;
+        this.obsolete = builder.obsolete;
+        this.childrenOf = builder.childrenOf;
+    }
+
+    /**
+     * @return the queryFields request parameter, i.e. queryFields=label,synonym
+     */
+    public String getQueryFields() {
+        return queryFields;
+    }
+
+    /**
+     * @return the fieldList request parameter, i.e. fieldList=iri,label
+     */
+    public String getFieldList() {
+        return fieldList;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @return maximum number of result pages requested, negative for all the pages
+     */
+    public int getPageLimit() {
+        return pageLimit;
+    }
+
+    public boolean isExact() {
+        return exact;
+    }
+
+    public boolean isObsolete() {
+        return obsolete;
+    }
+
+    public String getChildrenOf() {
+        return childrenOf;
+    }
+
+    /**
+     * @return a builder initialized with these options
+     */
+    public SearchOptionsBuilder toBuilder() {
+        return new SearchOptionsBuilder()
+                .setQueryFields(queryFields)
+                .setFieldList(fieldList)
+                .setPageSize(pageSize)
+                .setPageLimit(pageLimit)
+                .setExact(exact)
+                .setObsolete(obsolete)
+                .setChildrenOf(childrenOf);
+    }
+
+    @Override
+    public String toString() {
+        return "SearchOptions{" +
+                "queryFields='" + queryFields + '\'' +
+                ", fieldList='" + fieldList + '\'' +
+                ", pageSize=" + pageSize +
+                ", pageLimit=" + pageLimit +
+                ", exact=" + exact +
+                ", obsolete=" + obsolete +
+                ", childrenOf='" + childrenOf + '\'' +
+                '}';
+    }
+
+    public static class SearchOptionsBuilder {
+
+        private String queryFields;
+        private String fieldList;
+        private int pageSize = -1;
+        private int pageLimit = -1;
+        private boolean exact;
+        private boolean obsolete;
+        private String childrenOf;
+
+        public SearchOptionsBuilder() {
+        }
+
+        public SearchOptions build() {
+            return new SearchOptions(this);
+        }
+
+        public SearchOptionsBuilder setQueryFields(QueryFields queryFields) {
+            return setQueryFields(queryFields.toString());
+        }
+
+        /**
+         * @param queryFields queryFields request parameter, i.e. queryFields=label,synonym
+         */
+        public SearchOptionsBuilder setQueryFields(String queryFields) {
+            this.queryFields = queryFields;
+            return this;
+        }
+
+        public SearchOptionsBuilder setFieldList(FieldList fieldList) {
+            return setFieldList(fieldList.toString());
+        }
+
+        /**
+         * @param fieldList fieldList request parameter, i.e. fieldList=iri,label
+         */
+        public SearchOptionsBuilder setFieldList(String fieldList) {
+            this.fieldList = fieldList;
+            return this;
+        }
+
+        /**
+         * @param pageSize number of results per page, 0 or less for the default page size
+         */
+        public SearchOptionsBuilder setPageSize(int pageSize) {
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        /**
+         * @param pageLimit maximum number of result pages requested, negative for all the pages
+         */
+        public SearchOptionsBuilder setPageLimit(int pageLimit) {
+            this.pageLimit = pageLimit;
+            return this;
+        }
+
+        public SearchOptionsBuilder setExact(boolean exact) {
+            this.exact = exact;
+            return this;
+        }
+
+        public SearchOptionsBuilder setObsolete(boolean obsolete) {
+            this.obsolete = obsolete;
+            return this;
+        }
+
+        /**
+         * @param childrenOf comma separated IRIs of the terms the results must descend from
+         */
+        public SearchOptionsBuilder setChildrenOf(String childrenOf) {
+            this.childrenOf = childrenOf;
+            return this;
+        }
+    }
+}
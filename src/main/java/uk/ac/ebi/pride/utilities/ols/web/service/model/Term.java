@@ -50,6 +50,9 @@ public class Term implements Comparable, ITerm {
     @JsonProperty("is_root")
     private boolean root;
 
+    @JsonProperty("is_obsolete")
+    private boolean obsolete;
+
     @JsonProperty("short_form")
     private
     Identifier shortForm;
@@ -197,6 +200,14 @@ public class Term implements Comparable, ITerm {
         this.root = root;
     }
 
+    public boolean isObsolete() {
+        return obsolete;
+    }
+
+    public void setObsolete(boolean obsolete) {
+        this.obsolete = obsolete;
+    }
+
     public Identifier getShortForm() {
         return shortForm;
     }
@@ -0,0 +1,42 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+/**
+ * Transport used by the {@link uk.ac.ebi.pride.utilities.ols.web.service.client.OLSClient} to
+ * talk to the OLS web service. The default implementation is the {@link PooledHttpTransport}, other
+ * implementations can be provided to route the requests through a different HTTP stack or to
+ * answer them in-process (tests, benchmarks).
+ *
+ * Implementations must be thread safe: one transport is shared by all the threads using a client.
+ */
+public interface OlsTransport extends Closeable {
+
+    /**
+     * Reads the body of a successful response. The stream is owned by the transport and
+     * must not be closed by the reader.
+     *
+     * @param <T> type produced from the body
+     */
+    interface BodyReader<T> {
+        T read(InputStream body) throws IOException;
+    }
+
+    /**
+     * Perform a GET request and hand the response body to the reader.
+     *
+     * @param uri    URI to request
+     * @param reader reader for the response body
+     * @param <T>    type produced by the reader
+     * @return the value produced by the reader, null if the response has no body
+     * @throws IOException if the request fails or the server answers with an error status
+     */
+    <T> T get(URI uri, BodyReader<T> reader) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
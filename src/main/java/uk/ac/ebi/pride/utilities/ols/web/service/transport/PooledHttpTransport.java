@@ -0,0 +1,90 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.transport;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.HttpResponseException;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.io.HttpClientResponseHandler;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import uk.ac.ebi.pride.utilities.ols.web.service.config.AbstractOLSWsConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+/**
+ * HTTP transport backed by a pool of keep-alive connections. All the requests of an
+ * {@link uk.ac.ebi.pride.utilities.ols.web.service.client.OLSClient} go through the same pool,
+ * so consecutive lookups reuse the already open (and TLS negotiated) sockets instead of
+ * opening a new connection per request.
+ *
+ * Timeouts, pool sizes and idle eviction are taken from the {@link AbstractOLSWsConfig}.
+ */
+@Slf4j
+public class PooledHttpTransport implements OlsTransport {
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+
+    public PooledHttpTransport(AbstractOLSWsConfig config) {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(config.getConnectTimeout()))
+                .setSocketTimeout(Timeout.ofMilliseconds(config.getReadTimeout()))
+                .setValidateAfterInactivity(TimeValue.ofMilliseconds(config.getIdleConnectionTimeout() / 2))
+                .build();
+
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnPerRoute(config.getMaxConnectionsPerHost())
+                .setMaxConnTotal(config.getMaxConnectionsTotal())
+                .setDefaultConnectionConfig(connectionConfig)
+                .build();
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(config.getConnectTimeout()))
+                .setResponseTimeout(Timeout.ofMilliseconds(config.getReadTimeout()))
+                .build();
+
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(config.getIdleConnectionTimeout()))
+                .build();
+    }
+
+    /**
+     * Perform a GET request and hand the response body to the reader. The body is fully consumed
+     * afterwards so the connection can go back to the pool.
+     */
+    @Override
+    public <T> T get(URI uri, BodyReader<T> reader) throws IOException {
+        HttpGet request = new HttpGet(uri);
+        request.setHeader(HttpHeaders.ACCEPT, "application/json");
+        log.debug("GET {}", uri);
+        HttpClientResponseHandler<T> handler = response -> {
+            if (response.getCode() >= 300)
+                throw new HttpResponseException(response.getCode(), response.getReasonPhrase() + " [" + uri + "]");
+            HttpEntity entity = response.getEntity();
+            if (entity == null)
+                return null;
+            try (InputStream body = entity.getContent()) {
+                return reader.read(body);
+            }
+        };
+        return httpClient.execute(request, handler);
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+        connectionManager.close();
+    }
+}
@@ -12,4 +12,35 @@ public class Constants {
     public static final String OLS_PROTOCOL = "https";
     public static final String OLS_SERVER = "www.ebi.ac.uk/ols4/";
     public static final String OLS_SERVER_DEV = "wwwdev.ebi.ac.uk/ols/";
+
+    // HTTP transport defaults (milliseconds where applicable)
+    public static final int DEFAULT_CONNECT_TIMEOUT = 5000;
+    public static final int DEFAULT_READ_TIMEOUT = 60000;
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 20;
+    public static final int DEFAULT_MAX_CONNECTIONS_TOTAL = 50;
+    public static final int DEFAULT_IDLE_CONNECTION_TIMEOUT = 30000;
+
+    // Maximum number of requests in flight per OLS host, 0 uses the connection pool size per host
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS_PER_HOST = 0;
+
+    // Number of result pages requested concurrently once the total number of pages is known
+    public static final int DEFAULT_PAGE_FETCH_PARALLELISM = 4;
+
+    // Number of term lookups of a batch (getTermsByIds) running concurrently
+    public static final int DEFAULT_BATCH_LOOKUP_PARALLELISM = 8;
+
+    // Term cache, disabled (size 0) unless configured
+    public static final int DEFAULT_TERM_CACHE_SIZE = 0;
+    public static final long DEFAULT_TERM_CACHE_TTL = 60 * 60 * 1000L;
+    public static final long DEFAULT_TERM_CACHE_NEGATIVE_TTL = 5 * 60 * 1000L;
+
+    // Micro-batching of term lookups, disabled (window 0) unless configured
+    public static final long DEFAULT_TERM_BATCH_WINDOW = 0;
+    public static final int DEFAULT_TERM_BATCH_MAX_SIZE = 50;
+
+    // Time to live of the list of ontologies kept by the client
+    public static final long DEFAULT_ONTOLOGY_REGISTRY_TTL = 60 * 60 * 1000L;
+
+    // Number of accessions remembered by the OntologyCacheService
+    public static final int DEFAULT_ONTOLOGY_CACHE_SIZE = 10000;
 }
@@ -0,0 +1,35 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.utils;
+
+import java.util.function.Supplier;
+
+/**
+ * A value computed on its first use, once, even when it is first used by several threads at the
+ * same time.
+ *
+ * @param <T> type of the value
+ */
+public class Lazy<T> {
+
+    private final Supplier<T> supplier;
+
+    private volatile T value;
+
+    /**
+     * @param supplier computes the value, it must not return null
+     */
+    public Lazy(Supplier<T> supplier) {
+        this.supplier = supplier;
+    }
+
+    public T get() {
+        T current = value;
+        if (current == null) {
+            synchronized (this) {
+                if (value == null)
+                    value = supplier.get();
+                current = value;
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,63 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesce concurrent calls that load the same key: the first caller runs the loader and the
+ * callers arriving while it is running wait for its result (or its exception) instead of
+ * loading the key again. Nothing is kept once the call completes.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the loaded values
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    /**
+     * Run the loader for the key, or wait for the call already running for the same key.
+     *
+     * @param key    key of the call
+     * @param loader function that loads the value
+     * @return the value returned by the loader
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = calls.putIfAbsent(key, call);
+        if (running != null)
+            return join(running);
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, call);
+        }
+    }
+
+    /**
+     * @return number of calls currently running
+     */
+    public int inFlight() {
+        return calls.size();
+    }
+
+    private static <V> V join(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.cache;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import uk.ac.ebi.pride.utilities.ols.web.service.client.OLSClient;
+import uk.ac.ebi.pride.utilities.ols.web.service.transport.LocalOlsServer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class OntologyCacheServiceTest {
+
+    private static LocalOlsServer server;
+
+    @BeforeClass
+    public static void setUp() {
+        server = new LocalOlsServer().start();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testConcurrentChecksShareOneRequest() throws Exception {
+        server.resetStatistics();
+        server.setLatencyMillis(200);
+        try (OLSClient client = new OLSClient(server.getConfig())) {
+            OntologyCacheService service = new OntologyCacheService(client, 2);
+            ExecutorService threads = Executors.newFixedThreadPool(8);
+            List<Future<Boolean>> checks = new ArrayList<>();
+            for (int i = 0; i < 8; i++)
+                checks.add(threads.submit(() -> service.isTermExisting("MS:1002732", "ms")));
+            for (Future<Boolean> check : checks)
+                Assert.assertTrue(check.get());
+            threads.shutdown();
+            Assert.assertEquals(1, server.getRequestCount("terms"));
+
+            server.setLatencyMillis(0);
+            Assert.assertFalse(service.isTermExisting("MS:9999999", "ms"));
+            Assert.assertFalse(service.isTermExisting("MS:9999999", "MS"));
+            Assert.assertEquals(2, server.getRequestCount("terms"));
+
+            // the cache is bounded, older accessions are evicted instead of blocking new ones
+            for (String accession : new String[]{"MS:1000031", "MS:1000483", "MS:1002416"})
+                Assert.assertTrue(service.isTermExisting(accession, "ms"));
+            Assert.assertTrue(service.getStats().getSize() <= 2);
+        } finally {
+            server.setLatencyMillis(0);
+        }
+    }
+}
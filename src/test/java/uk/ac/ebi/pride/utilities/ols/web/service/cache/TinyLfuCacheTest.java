@@ -0,0 +1,40 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TinyLfuCacheTest {
+
+    @Test
+    public void testFrequentEntriesSurviveScan() {
+        TinyLfuCache<String, Integer> cache = new TinyLfuCache<>(100, 0);
+        for (int i = 0; i < 50; i++)
+            cache.put("hot-" + i, i);
+        for (int round = 0; round < 5; round++)
+            for (int i = 0; i < 50; i++)
+                Assert.assertEquals(Integer.valueOf(i), cache.get("hot-" + i));
+
+        // a burst of one-off keys must not flush the frequently requested ones
+        for (int i = 0; i < 10_000; i++)
+            cache.put("cold-" + i, i);
+
+        Assert.assertTrue(cache.size() <= 100);
+        int retained = 0;
+        for (int i = 0; i < 50; i++)
+            if (cache.get("hot-" + i) != null)
+                retained++;
+        Assert.assertTrue("retained " + retained, retained >= 45);
+    }
+
+    @Test
+    public void testExpiration() throws InterruptedException {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(10, 0);
+        cache.put("forever", "a");
+        cache.putWithTtl("short", "b", 20);
+        Assert.assertEquals("b", cache.get("short"));
+        Thread.sleep(50);
+        Assert.assertNull(cache.get("short"));
+        Assert.assertEquals("a", cache.get("forever"));
+        Assert.assertEquals(1, cache.size());
+    }
+}
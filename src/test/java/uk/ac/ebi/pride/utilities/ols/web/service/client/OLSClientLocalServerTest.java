@@ -0,0 +1,550 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.client;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.web.client.RestClientException;
+import uk.ac.ebi.pride.utilities.ols.web.service.annotation.AnnotationValueIndex;
+import uk.ac.ebi.pride.utilities.ols.web.service.annotation.NumericAnnotationIndex;
+import uk.ac.ebi.pride.utilities.ols.web.service.config.ExecutorMode;
+import uk.ac.ebi.pride.utilities.ols.web.service.config.OLSWsConfig;
+import uk.ac.ebi.pride.utilities.ols.web.service.local.LocalOntologyRepository;
+import uk.ac.ebi.pride.utilities.ols.web.service.local.OntologyGraph;
+import uk.ac.ebi.pride.utilities.ols.web.service.local.SubsumptionIndex;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Identifier;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Ontology;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.SearchOptions;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Term;
+import uk.ac.ebi.pride.utilities.ols.web.service.transport.LocalOlsServer;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static uk.ac.ebi.pride.utilities.ols.web.service.local.TermFixtures.ids;
+
+/**
+ * Tests of the {@link OLSClient} against the in-process {@link LocalOlsServer}, they do not need
+ * access to the OLS service.
+ */
+public class OLSClientLocalServerTest {
+
+    private static LocalOlsServer server;
+    private static OLSClient olsClient;
+
+    @BeforeClass
+    public static void setUp() {
+        server = new LocalOlsServer().start();
+        server.addSyntheticOntology("syn", 2500, 5);
+        server.addSyntheticOntology("large", 8000, 10);
+        server.addSyntheticOntology("wide", 201, 200);
+        olsClient = new OLSClient(server.getConfig());
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        olsClient.close();
+        server.close();
+    }
+
+    @Before
+    public void resetServer() {
+        server.setFailureRate(0);
+        server.setLatencyMillis(0);
+        server.setClosureLinks(true);
+        server.resetStatistics();
+    }
+
+    @Test
+    public void testGetTermById() {
+        Term term = olsClient.getTermById(new Identifier("MS:1002732", Identifier.IdentifierType.OBO), "ms");
+        Assert.assertEquals("Orbitrap Fusion Lumos", term.getLabel());
+        term = olsClient.getTermById(new Identifier("MS_1002732", Identifier.IdentifierType.OWL), "ms");
+        Assert.assertEquals("MS:1002732", term.getTermOBOId().getIdentifier());
+        Assert.assertNull(olsClient.getTermById(new Identifier("MS:9999999", Identifier.IdentifierType.OBO), "ms"));
+    }
+
+    @Test
+    public void testGetTermsByIds() {
+        server.setLatencyMillis(20);
+        List<Identifier> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            ids.add(new Identifier(String.format("SYN:%07d", i % 50), Identifier.IdentifierType.OBO));
+        ids.add(new Identifier("SYN:9999999", Identifier.IdentifierType.OBO));
+
+        Map<Identifier, Term> terms = olsClient.getTermsByIds(ids, "syn");
+        Assert.assertEquals(51, terms.size());
+        Assert.assertEquals("synthetic term 7", terms.get(new Identifier("SYN:0000007", Identifier.IdentifierType.OBO)).getLabel());
+        Assert.assertTrue(terms.containsKey(new Identifier("SYN:9999999", Identifier.IdentifierType.OBO)));
+        Assert.assertNull(terms.get(new Identifier("SYN:9999999", Identifier.IdentifierType.OBO)));
+        Assert.assertEquals(51, server.getRequestCount("terms"));
+        Assert.assertTrue(server.getMaxConcurrentRequests() > 1);
+    }
+
+    @Test
+    public void testTermLookupsAreBatched() throws Exception {
+        OLSWsConfig config = server.getConfig();
+        config.setTermBatchWindow(100);
+        try (OLSClient batchingClient = new OLSClient(config)) {
+            ExecutorService threads = Executors.newFixedThreadPool(21);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Term>> lookups = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                String id = String.format("SYN:%07d", i);
+                lookups.add(threads.submit(() -> {
+                    start.await();
+                    return batchingClient.retrieveTerm(id, "syn");
+                }));
+            }
+            // a quote in an id must not break the query of the other ids
+            Future<Term> unknown = threads.submit(() -> {
+                start.await();
+                return batchingClient.retrieveTerm("SYN:\"9999999", "syn");
+            });
+            start.countDown();
+            for (int i = 0; i < 20; i++)
+                Assert.assertEquals("synthetic term " + i, lookups.get(i).get().getLabel());
+            Assert.assertNull(unknown.get());
+            threads.shutdown();
+            Assert.assertEquals(1, server.getRequestCount("search"));
+            String q = server.getLastParameters("search").get("q");
+            Assert.assertTrue(q, q.contains("\"SYN:0000000\" OR "));
+            Assert.assertTrue(q, q.contains("\"SYN:\\\"9999999\""));
+        }
+    }
+
+    @Test
+    public void testGetTermByIdIsNotBatched() {
+        OLSWsConfig config = server.getConfig();
+        config.setTermBatchWindow(100);
+        try (OLSClient batchingClient = new OLSClient(config)) {
+            Term term = batchingClient.getTermById(new Identifier("MS:1001143", Identifier.IdentifierType.OBO), "ms");
+            Assert.assertNotNull(term.getLink());
+            Assert.assertEquals(0, server.getRequestCount("search"));
+        }
+    }
+
+    @Test
+    public void testReplacedByWithBatching() {
+        OLSWsConfig config = server.getConfig();
+        config.setTermBatchWindow(100);
+        try (OLSClient batchingClient = new OLSClient(config)) {
+            Assert.assertTrue(batchingClient.isObsolete("MS:1000001", "ms"));
+            Term replacement = batchingClient.getReplacedBy("MS:1000001", "ms");
+            Assert.assertNotNull(replacement);
+            Assert.assertEquals("MS:1000031", replacement.getTermOBOId().getIdentifier());
+        }
+    }
+
+    @Test
+    public void testClosingTheClientFailsWaitingLookups() throws Exception {
+        OLSWsConfig config = server.getConfig();
+        config.setTermBatchWindow(60 * 1000);
+        OLSClient batchingClient = new OLSClient(config);
+        ExecutorService threads = Executors.newSingleThreadExecutor();
+        try {
+            Future<Term> lookup = threads.submit(() -> batchingClient.retrieveTerm("SYN:0000001", "syn"));
+            Thread.sleep(200);
+            batchingClient.close();
+            try {
+                lookup.get(5, TimeUnit.SECONDS);
+                Assert.fail("The lookup should fail when the client is closed");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof RestClientException);
+            }
+            try {
+                batchingClient.retrieveTerm("SYN:0000002", "syn");
+                Assert.fail("The lookup should fail when the client is closed");
+            } catch (RestClientException e) {
+                Assert.assertEquals(0, server.getRequestCount("search"));
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAsyncLookupsOverlap() throws Exception {
+        server.setLatencyMillis(200);
+        // a new client, so none of the lookups is answered from the cache of the shared one
+        try (OLSClient client = new OLSClient(server.getConfig())) {
+            AsyncClient asyncClient = new AsyncOLSClient(client);
+            CompletableFuture<Term> term = asyncClient.getTermByIdAsync(new Identifier("MS:1002416", Identifier.IdentifierType.OBO), "ms");
+            CompletableFuture<List<Term>> parents = asyncClient.getTermParentsAsync(new Identifier("MS:1002416", Identifier.IdentifierType.OBO), "ms", 1);
+            CompletableFuture<List<Term>> search = asyncClient.searchAsync("orbitrap", "ms", false);
+            CompletableFuture.allOf(term, parents, search).get(10, TimeUnit.SECONDS);
+            Assert.assertTrue(server.getMaxConcurrentRequests() > 1);
+            Assert.assertEquals("Orbitrap Fusion", term.get().getLabel());
+            Assert.assertEquals(2, search.get().size());
+
+            CompletableFuture<Term> failed = asyncClient.getTermByIdAsync(new Identifier("MS:1002416", Identifier.IdentifierType.OBO), "unknown");
+            try {
+                failed.get(10, TimeUnit.SECONDS);
+                Assert.fail();
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof RestClientException);
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentRequestsPerHostAreLimited() {
+        server.setLatencyMillis(20);
+        OLSWsConfig config = server.getConfig();
+        config.setExecutorMode(ExecutorMode.VIRTUAL);
+        config.setMaxConcurrentRequestsPerHost(2);
+        try (OLSClient limitedClient = new OLSClient(config)) {
+            List<Identifier> ids = new ArrayList<>();
+            for (int i = 0; i < 20; i++)
+                ids.add(new Identifier(String.format("LARGE:%07d", i), Identifier.IdentifierType.OBO));
+            Map<Identifier, Term> terms = limitedClient.getTermsByIds(ids, "large");
+            Assert.assertEquals(20, terms.values().stream().filter(Objects::nonNull).count());
+            Assert.assertEquals(2, server.getMaxConcurrentRequests());
+        }
+    }
+
+    @Test
+    public void testGetOntologies() {
+        List<Ontology> ontologies = olsClient.getOntologies();
+        Assert.assertTrue(ontologies.stream().anyMatch(ontology -> "mod".equals(ontology.getId())));
+        Assert.assertEquals("ms", olsClient.getOntologyFromId("ms").getId());
+    }
+
+    @Test
+    public void testOntologyRegistry() throws Exception {
+        try (OLSClient client = new OLSClient(server.getConfig())) {
+            Assert.assertEquals("ms", client.getOntologyFromId("ms").getId());
+            Assert.assertEquals("mod", client.getOntologyFromPrefix("MOD").getId());
+            Assert.assertEquals("syn", client.getOntologyFromPrefix("syn").getId());
+            Assert.assertEquals("mod", client.getOntologyFromFilePath(new URI("http://purl.obolibrary.org/obo/mod.owl")).getId());
+            Assert.assertNull(client.getOntologyFromId("unknown"));
+            Assert.assertEquals(1, server.getRequestCount("ontologies"));
+
+            client.refreshOntologies();
+            Assert.assertEquals("ms", client.getOntologyFromId("ms").getId());
+            Assert.assertEquals(2, server.getRequestCount("ontologies"));
+        }
+    }
+
+    @Test
+    public void testGetAllTermsFromOntology() {
+        List<Term> terms = olsClient.getAllTermsFromOntology("syn");
+        Assert.assertEquals(2500, terms.size());
+        Assert.assertEquals("SYN:0000000", terms.get(0).getTermOBOId().getIdentifier());
+        Assert.assertEquals("SYN:0002499", terms.get(2499).getTermOBOId().getIdentifier());
+    }
+
+    @Test
+    public void testGetAllTermsFromOntologyInParallel() {
+        server.setLatencyMillis(50);
+        List<Term> terms = olsClient.getAllTermsFromOntology("large");
+        Assert.assertEquals(8000, terms.size());
+        for (int i = 0; i < terms.size(); i++)
+            Assert.assertEquals(String.format("LARGE:%07d", i), terms.get(i).getTermOBOId().getIdentifier());
+        Assert.assertEquals(8, server.getRequestCount("terms"));
+        Assert.assertTrue(server.getMaxConcurrentRequests() > 1);
+    }
+
+    @Test
+    public void testStreamAllTerms() {
+        try (Stream<Term> terms = olsClient.streamAllTerms("large")) {
+            List<Term> firstTerms = terms.limit(1500).collect(Collectors.toList());
+            Assert.assertEquals("LARGE:0001499", firstTerms.get(1499).getTermOBOId().getIdentifier());
+        }
+        // two pages consumed plus at most one page of read-ahead
+        Assert.assertTrue(server.getRequestCount("terms") <= 3);
+        Assert.assertEquals(2, olsClient.streamSearch("orbitrap", "ms").count());
+    }
+
+    @Test
+    public void testPublishAllTermsHonoursDemand() throws Exception {
+        AtomicInteger received = new AtomicInteger();
+        CountDownLatch firstBatch = new CountDownLatch(10);
+        CountDownLatch completed = new CountDownLatch(1);
+        Flow.Subscription[] subscription = new Flow.Subscription[1];
+        olsClient.publishAllTerms("large").subscribe(new Flow.Subscriber<Term>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription[0] = s;
+                s.request(10);
+            }
+
+            @Override
+            public void onNext(Term item) {
+                received.incrementAndGet();
+                firstBatch.countDown();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                completed.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                completed.countDown();
+            }
+        });
+        Assert.assertTrue(firstBatch.await(10, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        Assert.assertEquals(10, received.get());
+        Assert.assertEquals(1, server.getRequestCount("terms"));
+
+        subscription[0].request(Long.MAX_VALUE);
+        Assert.assertTrue(completed.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(8000, received.get());
+        Assert.assertEquals(8, server.getRequestCount("terms"));
+    }
+
+    @Test
+    public void testGetTermChildren() {
+        List<Term> children = olsClient.getTermChildren(new Identifier("MS:1001143", Identifier.IdentifierType.OBO), "ms", 1);
+        Assert.assertEquals(1, children.size());
+        Assert.assertEquals("MS:1001568", children.get(0).getTermOBOId().getIdentifier());
+
+        List<Term> parents = olsClient.getTermParents(new Identifier("MS:1002732", Identifier.IdentifierType.OBO), "ms", 2);
+        Assert.assertTrue(parents.stream().anyMatch(term -> "MS:1000483".equals(term.getTermOBOId().getIdentifier())));
+    }
+
+    @Test
+    public void testHierarchyTermsAreReturnedOnce() {
+        Map<Term, Integer> parents = olsClient.getTermParentsWithDistance(new Identifier("MS:1001568", Identifier.IdentifierType.OBO), "ms", 5);
+        Map<String, Integer> distances = new HashMap<>();
+        parents.forEach((term, distance) -> distances.put(term.getTermOBOId().getIdentifier(), distance));
+        Assert.assertEquals(3, distances.size());
+        Assert.assertEquals(Integer.valueOf(1), distances.get("MS:1001153"));
+        Assert.assertEquals(Integer.valueOf(1), distances.get("MS:1001143"));
+        Assert.assertEquals(Integer.valueOf(2), distances.get("MS:0000000"));
+
+        List<Term> children = olsClient.getTermChildren(new Identifier("MS:1001153", Identifier.IdentifierType.OBO), "ms", 3);
+        Assert.assertEquals(3, children.size());
+    }
+
+    @Test
+    public void testGetTermChildrenFollowsAllPages() {
+        server.setLatencyMillis(20);
+        List<Term> children = olsClient.getTermChildren(new Identifier("WIDE:0000000", Identifier.IdentifierType.OBO), "wide", 1);
+        Assert.assertEquals(200, children.size());
+        for (int i = 0; i < children.size(); i++)
+            Assert.assertEquals(String.format("WIDE:%07d", i + 1), children.get(i).getTermOBOId().getIdentifier());
+        Assert.assertEquals(10, server.getRequestCount("hierarchicalChildren"));
+        Assert.assertTrue(server.getMaxConcurrentRequests() > 1);
+    }
+
+    @Test
+    public void testAllDescendantsUseTheClosureEndpoint() {
+        List<Term> descendants = olsClient.getTermChildren(new Identifier("SYN:0000000", Identifier.IdentifierType.OBO), "syn", Integer.MAX_VALUE);
+        Assert.assertEquals(2499, descendants.size());
+        Assert.assertEquals(2499, descendants.stream().map(term -> term.getTermOBOId().getIdentifier()).distinct().count());
+        Assert.assertEquals(3, server.getRequestCount("hierarchicalDescendants"));
+        Assert.assertEquals(0, server.getRequestCount("hierarchicalChildren"));
+
+        Identifier leaf = new Identifier("SYN:0002499", Identifier.IdentifierType.OBO);
+        List<String> ancestors = olsClient.getAllTermParents(leaf, "syn").stream()
+                .map(term -> term.getTermOBOId().getIdentifier()).sorted().collect(Collectors.toList());
+        List<String> walked = olsClient.getTermParentsWithDistance(leaf, "syn", -1).keySet().stream()
+                .map(term -> term.getTermOBOId().getIdentifier()).sorted().collect(Collectors.toList());
+        Assert.assertEquals(walked, ancestors);
+        Assert.assertEquals(1, server.getRequestCount("hierarchicalAncestors"));
+    }
+
+    @Test
+    public void testAllDescendantsWithoutClosureLinksWalkTheHierarchy() {
+        server.setClosureLinks(false);
+        try (OLSClient client = new OLSClient(server.getConfig())) {
+            List<Term> descendants = client.getAllTermChildren(new Identifier("SYN:0000001", Identifier.IdentifierType.OBO), "syn");
+            Assert.assertEquals(olsClient.getTermChildrenWithDistance(new Identifier("SYN:0000001", Identifier.IdentifierType.OBO), "syn", -1).size(),
+                    descendants.size());
+            List<Term> ancestors = client.getAllTermParents(new Identifier("SYN:0002499", Identifier.IdentifierType.OBO), "syn");
+            Assert.assertTrue(ancestors.stream().anyMatch(term -> term.getTermOBOId().getIdentifier().equals("SYN:0000000")));
+        }
+        Assert.assertEquals(0, server.getRequestCount("descendants"));
+        Assert.assertEquals(0, server.getRequestCount("ancestors"));
+        Assert.assertEquals(0, server.getRequestCount("hierarchicalDescendants"));
+        Assert.assertTrue(server.getRequestCount("hierarchicalChildren") > 0);
+        Assert.assertTrue(server.getRequestCount("hierarchicalParents") > 0);
+    }
+
+    @Test
+    public void testOntologyGraphAnswersLikeTheClient() {
+        OntologyGraph graph = OntologyGraph.download(olsClient, "syn");
+        Assert.assertEquals(2500, graph.size());
+        // one request per page of terms and of classes, none per term
+        Assert.assertEquals(3, server.getRequestCount("terms"));
+        Assert.assertEquals(3, server.getRequestCount("classes"));
+        Assert.assertEquals(0, server.getRequestCount("hierarchicalChildren"));
+        server.resetStatistics();
+
+        TermHierarchy[] hierarchies = {olsClient, graph};
+        List<List<String>> answers = new ArrayList<>();
+        for (TermHierarchy hierarchy : hierarchies) {
+            answers.add(hierarchy.getTermChildrenWithDistance(new Identifier("SYN:0000001", Identifier.IdentifierType.OBO), "syn", 2)
+                    .entrySet().stream().map(entry -> entry.getKey().getTermOBOId().getIdentifier() + "@" + entry.getValue())
+                    .sorted().collect(Collectors.toList()));
+            answers.add(hierarchy.getTermParents(new Identifier("SYN:0002499", Identifier.IdentifierType.OBO), "syn", Integer.MAX_VALUE)
+                    .stream().map(term -> term.getTermOBOId().getIdentifier()).sorted().collect(Collectors.toList()));
+        }
+        Assert.assertEquals(30, answers.get(0).size());
+        Assert.assertEquals(answers.subList(0, 2), answers.subList(2, 4));
+        int remoteRequests = server.getRequestCount();
+        Assert.assertEquals(2499, graph.getTermChildren(new Identifier("SYN:0000000", Identifier.IdentifierType.OBO), "syn", -1).size());
+        Assert.assertEquals(remoteRequests, server.getRequestCount());
+    }
+
+    @Test
+    public void testLocalRepositoryDownloadsOnce() {
+        LocalOntologyRepository repository = new LocalOntologyRepository(olsClient);
+        SubsumptionIndex index = repository.getSubsumptionIndex("syn");
+        int requests = server.getRequestCount();
+        Assert.assertTrue(index.isDescendantOf("SYN:0002499", "SYN:0000000"));
+        Assert.assertFalse(index.isDescendantOf("SYN:0002499", "SYN:0000002"));
+        Assert.assertSame(index, repository.getSubsumptionIndex("SYN"));
+        Assert.assertSame(index.getGraph(), repository.getGraph("syn"));
+        Assert.assertEquals(requests, server.getRequestCount());
+    }
+
+    @Test
+    public void testTermsByAnnotationData() {
+        Assert.assertEquals(3, olsClient.getTermsByAnnotationData("mod", "DiffMono", 15.99, 16.0).size());
+        Assert.assertTrue(olsClient.getTermsByAnnotationData("mod", "DiffFormula", 0, 100).isEmpty());
+        Assert.assertEquals(List.of("MOD:00425", "MOD:00719"),
+                ids(olsClient.getTermsByAnnotationData("mod", "DiffFormula", "c 0 h 0  N 0 O 1")));
+        Assert.assertTrue(olsClient.getTermsByAnnotationData("mod", "DiffFormula", "C 2").isEmpty());
+    }
+
+    @Test
+    public void testLocalAnnotationIndexesDownloadOnce() {
+        LocalOntologyRepository repository = new LocalOntologyRepository(olsClient);
+        NumericAnnotationIndex masses = repository.getNumericAnnotationIndex("MOD");
+        Assert.assertEquals(ids(olsClient.getTermsByAnnotationData("mod", "DiffMono", 15.99, 16.0)),
+                ids(masses.getTerms("DiffMono", 15.99, 16.0)));
+        int requests = server.getRequestCount();
+        Assert.assertEquals(List.of("MOD:00696", "MOD:00046", "MOD:00047"),
+                ids(masses.getTermsWithinPpm("DiffMono", 79.9665, 10)));
+        Assert.assertTrue(masses.getTermsWithinDa("DiffMono", 79.9, 0.01).isEmpty());
+        Assert.assertEquals(3, olsClient.getTermsByAnnotationData("mod", "DiffMono", 15.99, 16.0).size());
+
+        AnnotationValueIndex values = repository.getAnnotationValueIndex("mod");
+        Assert.assertEquals(List.of("MOD:00425", "MOD:00719"), ids(values.getTerms("DiffFormula", "c 0 h 0  N 0 O 1")));
+        Assert.assertEquals(List.of("MOD:00719", "MOD:00046", "MOD:00047"),
+                ids(values.getTermsByPrefix("database_cross_reference", "RESID:")));
+        Assert.assertEquals(List.of("MOD:00719"), ids(values.getTerms("database_cross_reference", "resid:aa0581")));
+        Assert.assertTrue(values.getTermsByPrefix("comment", "a").isEmpty());
+        Assert.assertEquals(List.of("MOD:00719", "MOD:00046", "MOD:00047"),
+                ids(olsClient.getTermsByAnnotationDataPrefix("mod", "database_cross_reference", "resid:")));
+        Assert.assertEquals(List.of("MOD:00425", "MOD:00719"),
+                ids(olsClient.getTermsByAnnotationData("mod", "DiffFormula", "C 0 H 0 N 0 O 1")));
+        Assert.assertSame(masses, olsClient.getNumericAnnotationIndex("mod"));
+        Assert.assertSame(values, olsClient.getAnnotationValueIndex("mod"));
+        Assert.assertEquals(requests, server.getRequestCount());
+    }
+
+    @Test
+    public void testAnnotationLookupsWithoutOntology() {
+        LocalOntologyRepository repository = new LocalOntologyRepository(olsClient);
+        int requests = server.getRequestCount();
+        Assert.assertTrue(olsClient.getTermsByAnnotationData(null, "DiffMono", 15.99, 16.0).isEmpty());
+        Assert.assertTrue(olsClient.getTermsByAnnotationData("", "DiffFormula", "C 0 H 0 N 0 O 1").isEmpty());
+        Assert.assertTrue(olsClient.getTermsByAnnotationDataPrefix(null, "database_cross_reference", "RESID:").isEmpty());
+        Assert.assertEquals(0, OntologyGraph.download(olsClient, null).size());
+        Assert.assertTrue(repository.getNumericAnnotationIndex(null).getTerms("DiffMono", 15.99, 16.0).isEmpty());
+        Assert.assertTrue(repository.getAnnotationValueIndex(" ").getTerms("DiffFormula", "C 0 H 0 N 0 O 1").isEmpty());
+        Assert.assertTrue(repository.getTermsByXrefs(List.of("UNIMOD:21"), null).get("UNIMOD:21").isEmpty());
+        Assert.assertEquals(requests, server.getRequestCount());
+    }
+
+    @Test
+    public void testTermsByXref() {
+        LocalOntologyRepository repository = new LocalOntologyRepository(olsClient);
+        Map<String, List<Term>> terms = repository.getTermsByXrefs(List.of("UNIMOD:21", "chebi:45522", "UNIMOD:999"), "mod");
+        Assert.assertEquals(List.of("MOD:00696", "MOD:00046", "MOD:00047"), ids(terms.get("UNIMOD:21")));
+        Assert.assertEquals(List.of("MOD:00046"), ids(terms.get("chebi:45522")));
+        Assert.assertTrue(terms.get("UNIMOD:999").isEmpty());
+    }
+
+    @Test
+    public void testGetTermsByName() {
+        List<Term> terms = olsClient.getTermsByName("orbitrap", "ms", false);
+        Assert.assertEquals(2, terms.size());
+        Term exact = olsClient.getExactTermByName("Orbitrap Fusion", "ms");
+        Assert.assertEquals("MS:1002416", exact.getTermOBOId().getIdentifier());
+    }
+
+    @Test
+    public void testTermCache() {
+        OLSWsConfig config = server.getConfig();
+        config.setTermCacheSize(100);
+        try (OLSClient cachingClient = new OLSClient(config)) {
+            Identifier lumos = new Identifier("MS:1002732", Identifier.IdentifierType.OBO);
+            Identifier unknown = new Identifier("MS:9999999", Identifier.IdentifierType.OBO);
+            for (int i = 0; i < 3; i++) {
+                Assert.assertEquals("Orbitrap Fusion Lumos", cachingClient.getTermById(lumos, "ms").getLabel());
+                Assert.assertNull(cachingClient.getTermById(unknown, "MS"));
+            }
+            Assert.assertEquals(2, server.getRequestCount("terms"));
+            Assert.assertEquals(4, cachingClient.getTermCacheStats().getHitCount());
+
+            cachingClient.invalidateTermCache();
+            cachingClient.getTermById(lumos, "ms");
+            Assert.assertEquals(3, server.getRequestCount("terms"));
+        }
+        Assert.assertNull(olsClient.getTermCacheStats());
+    }
+
+    @Test
+    public void testConcurrentIdenticalRequestsAreCoalesced() throws Exception {
+        server.setLatencyMillis(200);
+        Identifier lumos = new Identifier("MS:1002732", Identifier.IdentifierType.OBO);
+        ExecutorService threads = Executors.newFixedThreadPool(10);
+        List<Future<Term>> lookups = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            lookups.add(threads.submit(() -> olsClient.getTermById(lumos, "ms")));
+        for (Future<Term> lookup : lookups)
+            Assert.assertEquals("Orbitrap Fusion Lumos", lookup.get().getLabel());
+        threads.shutdown();
+        Assert.assertEquals(1, server.getRequestCount("terms"));
+    }
+
+    @Test
+    public void testSearchOptionsAreThreadSafe() throws Exception {
+        String queryField = olsClient.getQueryField();
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        List<Future<List<Term>>> byIri = new ArrayList<>();
+        List<Future<List<Term>>> byName = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            byIri.add(threads.submit(() -> olsClient.getExactTermsByIriString("http://purl.obolibrary.org/obo/MS_1002732")));
+            byName.add(threads.submit(() -> olsClient.getTermsByName("orbitrap", "ms", false)));
+        }
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals("MS:1002732", byIri.get(i).get().get(0).getTermOBOId().getIdentifier());
+            Assert.assertEquals(2, byName.get(i).get().size());
+        }
+        threads.shutdown();
+        Assert.assertEquals(queryField, olsClient.getQueryField());
+
+        SearchOptions firstPage = olsClient.searchOptions().setPageSize(1).setPageLimit(1).build();
+        Assert.assertEquals(1, olsClient.search("orbitrap", "ms", firstPage).size());
+    }
+
+    @Test(expected = RestClientException.class)
+    public void testFailureIsReported() {
+        server.failNextRequests(1);
+        olsClient.getTermById(new Identifier("MS:1002732", Identifier.IdentifierType.OBO), "ms");
+    }
+}
@@ -0,0 +1,48 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.local;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static uk.ac.ebi.pride.utilities.ols.web.service.local.TermFixtures.ids;
+import static uk.ac.ebi.pride.utilities.ols.web.service.local.TermFixtures.term;
+
+public class AutocompleteIndexTest {
+
+    private final AutocompleteIndex index = AutocompleteIndex.build(new OntologyGraph.OntologyGraphBuilder("ms")
+            .addTerm(term("MS:1", "Orbitrap Fusion Lumos", "Lumos"))
+            .addTerm(term("MS:2", "Orbitrap  Fusion"))
+            .addTerm(term("MS:3", "LTQ Orbitrap", "LTQ-Orbitrap"))
+            .addTerm(term("MS:4", "Q Exactive"))
+            .build());
+
+    @Test
+    public void testCompletionRanksShorterNamesFirst() {
+        AutocompleteIndex.Completion completion = index.start("orb");
+        Assert.assertEquals(Arrays.asList("MS:2", "MS:1", "MS:3"), ids(completion.getTerms(10)));
+        Assert.assertEquals(Arrays.asList("MS:2", "MS:1"), ids(completion.getTerms(2)));
+    }
+
+    @Test
+    public void testRefinedCompletion() {
+        AutocompleteIndex.Completion completion = index.start("orb").refine("Orbitrap F");
+        Assert.assertEquals(Arrays.asList("MS:2", "MS:1"), ids(completion.getTerms(10)));
+        Assert.assertEquals(2, completion.getMatchCount());
+        Assert.assertTrue(completion.refine("orbitrap x").getTerms(10).isEmpty());
+    }
+
+    @Test
+    public void testExactSynonymBeforeLabelWord() {
+        // the synonym is an exact match, the label only contains the word
+        Assert.assertEquals(Arrays.asList("MS:1"), ids(index.complete("LUMOS", 10)));
+    }
+
+    @Test
+    public void testSearchInsideNames() {
+        Assert.assertEquals(Arrays.asList("MS:3", "MS:2", "MS:1"), ids(index.search("bitr", 10)));
+        Assert.assertEquals(Arrays.asList("MS:3"), ids(index.search("q-or", 10)));
+        Assert.assertEquals(Arrays.asList("MS:4", "MS:3"), ids(index.search("q", 10)));
+        Assert.assertTrue(index.search(" ", 10).isEmpty());
+    }
+}
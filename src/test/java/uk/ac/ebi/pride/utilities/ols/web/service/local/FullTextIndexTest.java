@@ -0,0 +1,116 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.local;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.SearchOptions;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.SearchQuery;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Term;
+
+import java.util.Arrays;
+
+import static uk.ac.ebi.pride.utilities.ols.web.service.local.TermFixtures.ids;
+import static uk.ac.ebi.pride.utilities.ols.web.service.local.TermFixtures.term;
+import static uk.ac.ebi.pride.utilities.ols.web.service.local.TermFixtures.withDescription;
+
+public class FullTextIndexTest {
+
+    private final SearchOptions options = new SearchOptions.SearchOptionsBuilder().build();
+
+    private final FullTextIndex index = new FullTextIndex();
+
+    @Before
+    public void indexInstruments() {
+        Term instrument = withDescription(term("MS:1", "instrument model"), "description of the instrument");
+        Term orbitrap = withDescription(term("MS:2", "Orbitrap Fusion"), "Thermo Scientific Orbitrap Fusion.");
+        Term ltq = withDescription(term("MS:3", "LTQ"), "linear ion trap, often coupled to an Orbitrap");
+        Term old = withDescription(term("MS:4", "Orbitrap Classic"), "replaced by a newer model");
+        old.setObsolete(true);
+        Term software = withDescription(term("MS:5", "software", "Orbitrap control"), "Fusion software");
+        index.index(SubsumptionIndex.build(new OntologyGraph.OntologyGraphBuilder("ms").setVersion("1")
+                .addChild(instrument, orbitrap).addChild(instrument, ltq).addChild(instrument, old)
+                .addTerm(software).build()));
+    }
+
+    @Test
+    public void testLabelBeforeSynonymBeforeDescription() {
+        Assert.assertEquals(Arrays.asList("MS:2", "MS:5", "MS:3"), ids(index.search("orbitrap", "ms", options)));
+    }
+
+    @Test
+    public void testObsoleteTerms() {
+        Assert.assertEquals(Arrays.asList("MS:2", "MS:4", "MS:5", "MS:3"),
+                ids(index.search("orbitrap", null, options.toBuilder().setObsolete(true).build())));
+    }
+
+    @Test
+    public void testExactSearch() {
+        Assert.assertEquals(Arrays.asList("MS:2"),
+                ids(index.search("Orbitrap  FUSION", "ms", options.toBuilder().setExact(true).build())));
+    }
+
+    @Test
+    public void testChildrenOf() {
+        Assert.assertEquals(Arrays.asList("MS:2", "MS:3"),
+                ids(index.search("orbitrap", "ms", options.toBuilder().setChildrenOf("http://purl.obolibrary.org/obo/MS_1").build())));
+    }
+
+    @Test
+    public void testQueryFields() {
+        Assert.assertEquals(Arrays.asList("MS:2", "MS:5"),
+                ids(index.search("orbitrap", "ms", options.toBuilder().setQueryFields("queryFields=label,synonym").build())));
+    }
+
+    @Test
+    public void testSearchById() {
+        Assert.assertEquals(Arrays.asList("MS:3"), ids(index.search("ms:3", "ms", options)));
+    }
+
+    @Test
+    public void testOnlyTheRequestedOntologies() {
+        Assert.assertTrue(index.search("orbitrap", "mod", options).isEmpty());
+    }
+
+    @Test
+    public void testPages() {
+        SearchQuery page = index.getSearchQuery(1, "orbitrap", "ms", options.toBuilder().setPageSize(1).build());
+        Assert.assertEquals(3, page.getResponse().getNumFound());
+        Assert.assertEquals(1, page.getResponse().getSearchResults().length);
+        Assert.assertEquals("MS:5", page.getResponse().getSearchResults()[0].getOboId().getIdentifier());
+        Assert.assertNotNull(page.getResponse().getSearchResults()[0].getScore());
+    }
+
+    @Test
+    public void testNewVersionReplacesThePreviousOne() {
+        OntologyGraph second = new OntologyGraph.OntologyGraphBuilder("ms").setVersion("2")
+                .addTerm(term("MS:6", "Orbitrap Astral")).build();
+        index.index(SubsumptionIndex.build(second));
+        Assert.assertEquals(Arrays.asList("MS:6"), ids(index.search("orbitrap", "ms", options)));
+    }
+
+    @Test
+    public void testExactSearchOfTheSearchedFields() {
+        FullTextIndex index = new FullTextIndex();
+        Term orbitrap = withDescription(term("MS:2", "Orbitrap Fusion", "Fusion"), "Thermo Scientific Orbitrap Fusion.");
+        index.index(SubsumptionIndex.build(new OntologyGraph.OntologyGraphBuilder("ms").addTerm(orbitrap).build()));
+        SearchOptions exact = options.toBuilder().setExact(true).build();
+
+        String iri = "http://purl.obolibrary.org/obo/MS_2";
+        SearchOptions byIri = exact.toBuilder().setQueryFields("queryFields=iri").build();
+        Assert.assertEquals(1, index.search(iri, "ms", byIri.toBuilder().setExact(false).build()).size());
+        Assert.assertEquals(Arrays.asList("MS:2"), ids(index.search(iri, "ms", byIri)));
+        Assert.assertEquals(Arrays.asList("MS:2"), ids(index.search("ms:2", "ms", exact.toBuilder().setQueryFields("queryFields=obo_id").build())));
+        Assert.assertTrue(index.search("Orbitrap Fusion", "ms", byIri).isEmpty());
+    }
+
+    @Test
+    public void testExactSynonymOnlyWhenSynonymsAreSearched() {
+        FullTextIndex index = new FullTextIndex();
+        index.index(SubsumptionIndex.build(new OntologyGraph.OntologyGraphBuilder("ms")
+                .addTerm(term("MS:2", "Orbitrap Fusion", "Fusion")).build()));
+        SearchOptions exact = options.toBuilder().setExact(true).build();
+
+        Assert.assertEquals(Arrays.asList("MS:2"), ids(index.search("fusion", "ms", exact)));
+        Assert.assertTrue(index.search("fusion", "ms", exact.toBuilder().setQueryFields("queryFields=label").build()).isEmpty());
+    }
+}
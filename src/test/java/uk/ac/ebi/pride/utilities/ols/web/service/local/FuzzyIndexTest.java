@@ -0,0 +1,46 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.local;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static uk.ac.ebi.pride.utilities.ols.web.service.local.TermFixtures.ids;
+import static uk.ac.ebi.pride.utilities.ols.web.service.local.TermFixtures.term;
+
+public class FuzzyIndexTest {
+
+    private final FuzzyIndex index = FuzzyIndex.build(AutocompleteIndex.build(new OntologyGraph.OntologyGraphBuilder("mod")
+            .addTerm(term("MOD:1", "phosphorylation"))
+            .addTerm(term("MOD:2", "phosphorylated residue", "phosphorilation"))
+            .addTerm(term("MOD:3", "Orbitrap Fusion Lumos"))
+            .addTerm(term("MOD:4", "Orbitrap Fusion"))
+            .addTerm(term("MOD:5", "acetylation"))
+            .build()));
+
+    @Test
+    public void testClosestNamesFirst() {
+        // the synonym is an exact match, the label is one substitution away
+        Assert.assertEquals(Arrays.asList("MOD:2", "MOD:1"), ids(index.search("Phosphorilation", 1, 10)));
+        Assert.assertEquals(Arrays.asList("MOD:4"), ids(index.search("orbitrap fusion", 6, 1)));
+    }
+
+    @Test
+    public void testMisspelledNames() {
+        Assert.assertEquals(Arrays.asList("MOD:1"), ids(index.search("phosforylation", 2, 10)));
+        Assert.assertEquals(Arrays.asList("MOD:3"), ids(index.search("orbitrap fusoin lumos", 2, 10)));
+        Assert.assertTrue(index.search("methylation", 1, 10).isEmpty());
+    }
+
+    @Test
+    public void testCaseAndBlanksAreIgnored() {
+        Assert.assertEquals(Arrays.asList("MOD:3"), ids(index.search("orbitrap  fusion lumos ", 0, 10)));
+        Assert.assertTrue(index.search("", 3, 10).isEmpty());
+    }
+
+    @Test
+    public void testEditDistance() {
+        Assert.assertEquals(1, FuzzyIndex.distance("kitten", "sitten", new int[7]));
+        Assert.assertEquals(3, FuzzyIndex.distance("kitten", "sitting", new int[7]));
+    }
+}
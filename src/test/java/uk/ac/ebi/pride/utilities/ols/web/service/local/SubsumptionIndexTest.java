@@ -0,0 +1,86 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.local;
+
+import org.junit.Assert;
+import org.junit.Test;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Term;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static uk.ac.ebi.pride.utilities.ols.web.service.local.TermFixtures.ids;
+
+public class SubsumptionIndexTest {
+
+    private final Map<String, Term> terms = new HashMap<>();
+
+    // A <- B, A <- C, B <- D, C <- D, D <- E
+    private final SubsumptionIndex index = SubsumptionIndex.build(new OntologyGraph.OntologyGraphBuilder("test").setVersion("1")
+            .addChild(term("T:A"), term("T:B")).addChild(term("T:A"), term("T:C"))
+            .addChild(term("T:B"), term("T:D")).addChild(term("T:C"), term("T:D"))
+            .addChild(term("T:D"), term("T:E")).addTerm(term("T:X"))
+            .build());
+
+    @Test
+    public void testDescendants() {
+        Assert.assertEquals(6, index.getRebuiltTerms());
+        Assert.assertTrue(index.isDescendantOf("T:E", "T:A"));
+        Assert.assertTrue(index.isDescendantOf("http://purl.obolibrary.org/obo/T_E", "T:B"));
+        Assert.assertFalse(index.isDescendantOf("T:A", "T:E"));
+        Assert.assertFalse(index.isDescendantOf("T:D", "T:D"));
+        Assert.assertFalse(index.isDescendantOf("T:X", "T:A"));
+        Assert.assertEquals(4, index.getAncestorCount("T:E"));
+    }
+
+    @Test
+    public void testFilterDescendants() {
+        List<Term> candidates = Arrays.asList(term("T:B"), term("T:C"), term("T:D"), term("T:E"), term("T:X"));
+        Assert.assertEquals(Arrays.asList("T:D", "T:E"), ids(index.filterDescendants(candidates, "T:B")));
+    }
+
+    @Test
+    public void testIncrementalRebuild() {
+        // E moves from D to C, F is added under C and X is removed
+        OntologyGraph second = new OntologyGraph.OntologyGraphBuilder("test").setVersion("2")
+                .addChild(term("T:A"), term("T:C")).addChild(term("T:A"), term("T:B"))
+                .addChild(term("T:B"), term("T:D")).addChild(term("T:C"), term("T:D"))
+                .addChild(term("T:C"), term("T:E")).addChild(term("T:C"), term("T:F"))
+                .build();
+        SubsumptionIndex rebuilt = index.rebuild(second);
+        Assert.assertEquals(2, rebuilt.getRebuiltTerms());
+        Assert.assertFalse(rebuilt.isDescendantOf("T:E", "T:B"));
+        Assert.assertTrue(rebuilt.isDescendantOf("T:E", "T:C"));
+        Assert.assertTrue(rebuilt.isDescendantOf("T:F", "T:A"));
+        Assert.assertTrue(rebuilt.isDescendantOf("T:D", "T:B"));
+        Assert.assertFalse(rebuilt.isDescendantOf("T:X", "T:A"));
+        Assert.assertTrue(index.isDescendantOf("T:E", "T:B"));
+        Assert.assertSame(rebuilt, rebuilt.rebuild(second));
+    }
+
+    @Test
+    public void testCompactBitmap() {
+        int[] values = new int[6000];
+        int count = 0;
+        for (int value = 0; value < 5000; value++)
+            values[count++] = value * 3;
+        for (int value = 0; value < 1000; value++)
+            values[count++] = 1_000_000 + value * 7;
+        CompactBitmap bitmap = CompactBitmap.of(values, count);
+        Assert.assertEquals(6000, bitmap.cardinality());
+        Assert.assertArrayEquals(values, bitmap.toArray());
+        Assert.assertTrue(bitmap.contains(14997));
+        Assert.assertFalse(bitmap.contains(14998));
+        Assert.assertTrue(bitmap.contains(1_000_007));
+        Assert.assertFalse(bitmap.contains(1_000_008));
+        Assert.assertFalse(bitmap.contains(-1));
+        Assert.assertFalse(CompactBitmap.EMPTY.contains(0));
+    }
+
+    /*
+     * The same term object for an id, like the terms of a downloaded ontology.
+     */
+    private Term term(String oboId) {
+        return terms.computeIfAbsent(oboId, TermFixtures::term);
+    }
+}
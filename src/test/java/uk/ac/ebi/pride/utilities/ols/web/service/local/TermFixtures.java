@@ -0,0 +1,56 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.local;
+
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Annotation;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Term;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Terms built in memory for the tests of the local indexes, with the IRI OLS gives to an OBO id.
+ */
+public final class TermFixtures {
+
+    private TermFixtures() {
+    }
+
+    /**
+     * @param oboId OBO id of the term, for example MS:1000031
+     * @return a term with the OBO id and its IRI.
+     */
+    public static Term term(String oboId) {
+        Term term = new Term();
+        term.setIri("http://purl.obolibrary.org/obo/" + oboId.replace(':', '_'));
+        term.setOboId(oboId);
+        return term;
+    }
+
+    public static Term term(String oboId, String label, String... synonyms) {
+        Term term = term(oboId);
+        term.setLabel(label);
+        term.setSynonyms(synonyms);
+        return term;
+    }
+
+    public static Term withDescription(Term term, String description) {
+        term.setDescription(new String[]{description});
+        return term;
+    }
+
+    /**
+     * @param crossReferences database_cross_reference annotations of the term, as DB:ID
+     */
+    public static Term withCrossReferences(Term term, String... crossReferences) {
+        Annotation annotation = term.getAnnotation() == null ? new Annotation() : term.getAnnotation();
+        annotation.set(Annotation.AnnotationType.DATABASE_CROSS_REFERENCE.getValue(), crossReferences);
+        term.setAnnotation(annotation);
+        return term;
+    }
+
+    /**
+     * @return the OBO ids of the terms, in the same order.
+     */
+    public static List<String> ids(List<Term> terms) {
+        return terms.stream().map(term -> term.getTermOBOId().getIdentifier()).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,83 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.local;
+
+import org.junit.Assert;
+import org.junit.Test;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Identifier;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.OBOXRef;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.OboDefinitionCitation;
+import uk.ac.ebi.pride.utilities.ols.web.service.model.Term;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static uk.ac.ebi.pride.utilities.ols.web.service.local.TermFixtures.ids;
+import static uk.ac.ebi.pride.utilities.ols.web.service.local.TermFixtures.term;
+import static uk.ac.ebi.pride.utilities.ols.web.service.local.TermFixtures.withCrossReferences;
+
+public class XrefIndexTest {
+
+    private final XrefIndex mod;
+
+    // the term the xref points to, and the terms with an xref to MOD:00696
+    private final XrefIndex unimod = XrefIndex.build(new OntologyGraph.OntologyGraphBuilder("unimod")
+            .addTerm(term("UNIMOD:35")).addTerm(withCrossReferences(term("UNIMOD:21"), "MOD:00696")).build());
+
+    public XrefIndexTest() {
+        Term oxidation = withCrossReferences(term("MOD:00425"), "Unimod:35");
+        oxidation.setOboXRefs(new OBOXRef[]{new OBOXRef("Unimod", "35", null)});
+        Term sulfoxide = withCrossReferences(term("MOD:00719"), "Unimod:35", "RESID:AA0581");
+        Term phospho = term("MOD:00696");
+        phospho.setOboDefinitionCitation(new OboDefinitionCitation[]{
+                new OboDefinitionCitation(new OBOXRef[]{new OBOXRef("ChEBI", "45522", null)})});
+        mod = XrefIndex.build(new OntologyGraph.OntologyGraphBuilder("mod")
+                .addTerm(oxidation).addTerm(sulfoxide).addTerm(phospho).build());
+    }
+
+    @Test
+    public void testReverseLookupWithoutCase() {
+        Assert.assertEquals(Arrays.asList("MOD:00425", "MOD:00719"), ids(mod.getTerms("UNIMOD:35")));
+        Assert.assertEquals(Arrays.asList("MOD:00719"), ids(mod.getTerms("resid", "aa0581")));
+        Assert.assertTrue(mod.getTerms("Unimod35").isEmpty());
+    }
+
+    @Test
+    public void testXrefsOfDefinitionCitations() {
+        Assert.assertEquals(Arrays.asList("MOD:00696"), ids(mod.getTerms("ChEBI:45522")));
+    }
+
+    @Test
+    public void testXrefsOfATermAreKeptOnce() {
+        Assert.assertEquals(Arrays.asList("UNIMOD:35"), mod.getXrefs(new Identifier("MOD:00425", Identifier.IdentifierType.OBO)));
+    }
+
+    @Test
+    public void testBatchLookup() {
+        Map<String, List<Term>> batch = mod.getTerms(Arrays.asList("Unimod:35", "Unimod:21"));
+        Assert.assertEquals(2, batch.get("Unimod:35").size());
+        Assert.assertTrue(batch.get("Unimod:21").isEmpty());
+    }
+
+    @Test
+    public void testMappingFollowsXrefsBothWays() {
+        Assert.assertEquals(Arrays.asList("UNIMOD:35"),
+                ids(mod.mapTerm(new Identifier("MOD:00719", Identifier.IdentifierType.OBO), unimod)));
+        Assert.assertEquals(Arrays.asList("UNIMOD:21"),
+                ids(mod.mapTerm(new Identifier("MOD:00696", Identifier.IdentifierType.OBO), unimod)));
+        Assert.assertEquals(Arrays.asList("MOD:00696"),
+                ids(unimod.mapTerm(new Identifier("UNIMOD:21", Identifier.IdentifierType.OBO), mod)));
+    }
+
+    @Test
+    public void testMappingFindsTermsWhoseIdsAreNotUpperCase() {
+        Term disease = withCrossReferences(term("MONDO:0007915"), "Orphanet:558");
+        XrefIndex mondo = XrefIndex.build(new OntologyGraph.OntologyGraphBuilder("mondo").addTerm(disease).build());
+        XrefIndex orphanet = XrefIndex.build(new OntologyGraph.OntologyGraphBuilder("ordo")
+                .addTerm(term("Orphanet:558")).addTerm(term("Orphanet:559")).build());
+
+        Assert.assertEquals(Arrays.asList("Orphanet:558"),
+                ids(mondo.mapTerm(new Identifier("MONDO:0007915", Identifier.IdentifierType.OBO), orphanet)));
+        Assert.assertEquals(0, orphanet.getGraph().getTermIdIgnoreCase("ORPHANET:558"));
+        Assert.assertEquals(-1, orphanet.getGraph().getTermIdIgnoreCase("ORPHANET:557"));
+    }
+}
@@ -0,0 +1,737 @@
+package uk.ac.ebi.pride.utilities.ols.web.service.transport;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import uk.ac.ebi.pride.utilities.ols.web.service.config.OLSWsConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * In-process stand-in for the OLS REST API, built on the JDK {@link HttpServer}. It serves the
+ * recorded ontologies and terms found under the {@code ols/} test resources (plus any synthetic
+ * ontology registered with {@link #addSyntheticOntology(String, int, int)}) through the same
+ * endpoints and JSON shapes used by the {@link uk.ac.ebi.pride.utilities.ols.web.service.client.OLSClient}:
+ *
+ * <ul>
+ *     <li>/api/ontologies and /api/ontologies/{id}</li>
+ *     <li>/api/ontologies/{id}/terms (paged, or filtered by obo_id, short_form or iri)</li>
+ *     <li>/api/ontologies/{id}/terms/roots</li>
+ *     <li>/api/ontologies/{id}/terms/{iri}/hierarchicalChildren and hierarchicalParents</li>
+ *     <li>/api/ontologies/{id}/terms/{iri}/hierarchicalDescendants and hierarchicalAncestors</li>
+ *     <li>/api/search and /api/terms</li>
+ *     <li>/api/v2/ontologies/{id}/classes (paged, only the iri and hierarchicalParent of the classes)</li>
+ * </ul>
+ *
+ * Latency and failures can be injected to benchmark and test the client without touching OLS.
+ */
+public class LocalOlsServer implements AutoCloseable {
+
+    private static final String BASE_PATH = "/ols4";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final Pattern QUOTED_PHRASE = Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\"");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private final Map<String, ObjectNode> ontologies = new LinkedHashMap<>();
+    private final Map<String, LocalOntology> terms = new ConcurrentHashMap<>();
+
+    private final Map<String, Map<String, String>> lastParameters = new ConcurrentHashMap<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger failNext = new AtomicInteger();
+    private final Map<String, AtomicInteger> requestsByEndpoint = new ConcurrentHashMap<>();
+    private final Random random = new Random(42);
+
+    private volatile long latencyMillis;
+    private volatile double failureRate;
+    private volatile boolean closureLinks = true;
+
+    public LocalOlsServer() {
+        try {
+            this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "local-ols-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server.setExecutor(executor);
+        this.server.createContext(BASE_PATH + "/api", this::handle);
+        loadFixtures();
+    }
+
+    public LocalOlsServer start() {
+        server.start();
+        return this;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return a client configuration pointing to this server.
+     */
+    public OLSWsConfig getConfig() {
+        return new OLSWsConfig("http", "localhost:" + getPort() + BASE_PATH + "/");
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + getPort() + BASE_PATH;
+    }
+
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * @param failureRate fraction (0..1) of the requests answered with an HTTP 500.
+     */
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    /**
+     * @param closureLinks false to render the terms without their hierarchicalDescendants and
+     *                     hierarchicalAncestors links, like older OLS versions.
+     */
+    public void setClosureLinks(boolean closureLinks) {
+        this.closureLinks = closureLinks;
+    }
+
+    /**
+     * Answer the next requests with an HTTP 500.
+     * @param requests number of requests to fail.
+     */
+    public void failNextRequests(int requests) {
+        failNext.set(requests);
+    }
+
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @param endpoint last fixed path segment of the endpoint, e.g. "terms", "search", "hierarchicalChildren".
+     * @return number of requests received for that endpoint.
+     */
+    public int getRequestCount(String endpoint) {
+        AtomicInteger count = requestsByEndpoint.get(endpoint);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * @return the query parameters of the last request to an endpoint, null if there was none.
+     */
+    public Map<String, String> getLastParameters(String endpoint) {
+        return lastParameters.get(endpoint);
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxInFlight.get();
+    }
+
+    public void resetStatistics() {
+        requestCount.set(0);
+        maxInFlight.set(0);
+        requestsByEndpoint.clear();
+        lastParameters.clear();
+    }
+
+    /**
+     * Register a generated ontology of the given size, shaped as a tree where every term has
+     * {@code branching} children. Terms are named after the upper-cased ontology id,
+     * e.g. SYN:0000000, SYN:0000001 ... for the ontology "syn".
+     *
+     * @param ontologyId id of the new ontology
+     * @param size       number of terms
+     * @param branching  number of children per term
+     */
+    public void addSyntheticOntology(String ontologyId, int size, int branching) {
+        String prefix = ontologyId.toUpperCase();
+        ObjectNode ontology = mapper.createObjectNode();
+        ontology.put("ontologyId", ontologyId);
+        ontology.put("status", "LOADED");
+        ontology.put("updated", "2024-01-01T00:00:00.000+0000");
+        ontology.put("numberOfTerms", size);
+        ObjectNode config = ontology.putObject("config");
+        config.put("id", ontologyId);
+        config.put("title", "Synthetic ontology " + ontologyId);
+        config.put("namespace", ontologyId);
+        config.put("preferredPrefix", prefix);
+        config.put("fileLocation", "http://example.org/" + ontologyId + ".obo");
+        config.put("version", "1");
+
+        List<ObjectNode> docs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ObjectNode term = mapper.createObjectNode();
+            String shortForm = String.format("%s_%07d", prefix, i);
+            term.put("iri", "http://example.org/" + shortForm);
+            term.put("short_form", shortForm);
+            term.put("obo_id", shortForm.replace('_', ':'));
+            term.put("label", "synthetic term " + i);
+            term.putArray("description").add("Generated term number " + i);
+            ArrayNode parents = term.putArray("parents");
+            if (i > 0)
+                parents.add(String.format("http://example.org/%s_%07d", prefix, (i - 1) / branching));
+            docs.add(term);
+        }
+        synchronized (ontologies) {
+            ontologies.put(ontologyId, ontology);
+        }
+        terms.put(ontologyId, new LocalOntology(ontologyId, docs));
+    }
+
+    private void loadFixtures() {
+        try {
+            JsonNode ontologyDocs = readResource("ols/ontologies.json");
+            for (JsonNode ontology : ontologyDocs) {
+                String id = ontology.get("ontologyId").asText();
+                ontologies.put(id, (ObjectNode) ontology);
+                JsonNode termDocs = readResource("ols/terms/" + id + ".json");
+                List<ObjectNode> docs = new ArrayList<>();
+                if (termDocs != null)
+                    termDocs.forEach(term -> docs.add((ObjectNode) term));
+                terms.put(id, new LocalOntology(id, docs));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private JsonNode readResource(String name) throws IOException {
+        try (InputStream in = LocalOlsServer.class.getClassLoader().getResourceAsStream(name)) {
+            return in == null ? null : mapper.readTree(in);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        requestCount.incrementAndGet();
+        try {
+            if (latencyMillis > 0)
+                Thread.sleep(latencyMillis);
+            List<String> segments = pathSegments(exchange.getRequestURI().getRawPath());
+            Map<String, String> params = queryParams(exchange.getRequestURI().getRawQuery());
+            requestsByEndpoint.computeIfAbsent(endpointName(segments), k -> new AtomicInteger()).incrementAndGet();
+            lastParameters.put(endpointName(segments), params);
+
+            if (shouldFail()) {
+                send(exchange, 500, "{\"error\":\"Injected failure\"}");
+                return;
+            }
+            JsonNode response = route(segments, params);
+            if (response == null)
+                send(exchange, 404, "{\"error\":\"Not Found\"}");
+            else
+                send(exchange, 200, mapper.writeValueAsString(response));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            send(exchange, 503, "{}");
+        } catch (RuntimeException e) {
+            send(exchange, 500, "{\"error\":\"" + e.getMessage() + "\"}");
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private boolean shouldFail() {
+        if (failNext.getAndUpdate(value -> value > 0 ? value - 1 : 0) > 0)
+            return true;
+        if (failureRate <= 0)
+            return false;
+        synchronized (random) {
+            return random.nextDouble() < failureRate;
+        }
+    }
+
+    private void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /*
+     * Segments after the /ols4/api prefix, decoded twice as OLS double encodes the IRIs in the paths.
+     */
+    private static List<String> pathSegments(String rawPath) {
+        String path = rawPath.substring((BASE_PATH + "/api").length());
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.split("/"))
+            if (!segment.isEmpty())
+                segments.add(decode(decode(segment)));
+        return segments;
+    }
+
+    private static String endpointName(List<String> segments) {
+        if (segments.isEmpty())
+            return "api";
+        String last = segments.get(segments.size() - 1);
+        if (segments.size() == 4 && "terms".equals(segments.get(2)) && !"roots".equals(last))
+            return "term";
+        if (segments.size() == 2 && "ontologies".equals(segments.get(0)))
+            return "ontology";
+        return last;
+    }
+
+    private static Map<String, String> queryParams(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null)
+            return params;
+        for (String pair : rawQuery.split("&")) {
+            int index = pair.indexOf('=');
+            if (index > 0)
+                params.put(decode(pair.substring(0, index)), decode(pair.substring(index + 1)));
+            else if (!pair.isEmpty())
+                params.put(decode(pair), "");
+        }
+        return params;
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value.replace("+", "%2B"), "UTF-8");
+        } catch (Exception e) {
+            return value;
+        }
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (Exception e) {
+            return value;
+        }
+    }
+
+    private JsonNode route(List<String> segments, Map<String, String> params) {
+        if (segments.isEmpty())
+            return null;
+        switch (segments.get(0)) {
+            case "ontologies":
+                if (segments.size() == 1)
+                    return ontologyPage(params);
+                LocalOntology ontology = terms.get(segments.get(1).toLowerCase());
+                if (ontology == null)
+                    return null;
+                if (segments.size() == 2)
+                    return ontologies.get(ontology.id);
+                if (segments.size() == 3 && "terms".equals(segments.get(2)))
+                    return termsEndpoint(ontology, params);
+                if (segments.size() == 4 && "terms".equals(segments.get(2)) && "roots".equals(segments.get(3)))
+                    return termPage(ontology, ontology.roots(), "/ontologies/" + ontology.id + "/terms/roots", params, 1000);
+                if (segments.size() == 5 && "terms".equals(segments.get(2)))
+                    return relationEndpoint(ontology, segments.get(3), segments.get(4), params);
+                return null;
+            case "search":
+                return search(params);
+            case "terms":
+                return termsById(params);
+            case "v2":
+                if (segments.size() == 4 && "ontologies".equals(segments.get(1)) && "classes".equals(segments.get(3))) {
+                    LocalOntology classes = terms.get(segments.get(2).toLowerCase());
+                    return classes == null ? null : classPage(classes, params);
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    private JsonNode ontologyPage(Map<String, String> params) {
+        List<ObjectNode> all;
+        synchronized (ontologies) {
+            all = new ArrayList<>(ontologies.values());
+        }
+        int page = intParam(params, "page", 0);
+        int size = intParam(params, "size", DEFAULT_PAGE_SIZE);
+        ObjectNode result = mapper.createObjectNode();
+        ArrayNode embedded = result.putObject("_embedded").putArray("ontologies");
+        slice(all, page, size).forEach(embedded::add);
+        addPageInfo(result, "/ontologies", all.size(), page, size);
+        return result;
+    }
+
+    private JsonNode termsEndpoint(LocalOntology ontology, Map<String, String> params) {
+        ObjectNode lookup = null;
+        if (params.containsKey("obo_id"))
+            lookup = ontology.byOboId.get(params.get("obo_id"));
+        else if (params.containsKey("short_form"))
+            lookup = ontology.byShortForm.get(params.get("short_form"));
+        else if (params.containsKey("iri"))
+            lookup = ontology.byIri.get(params.get("iri"));
+        else
+            return termPage(ontology, ontology.docs, "/ontologies/" + ontology.id + "/terms", params, DEFAULT_PAGE_SIZE);
+
+        ObjectNode result = mapper.createObjectNode();
+        if (lookup != null)
+            result.putObject("_embedded").putArray("terms").add(ontology.render(lookup));
+        addPageInfo(result, "/ontologies/" + ontology.id + "/terms", lookup == null ? 0 : 1, 0, DEFAULT_PAGE_SIZE);
+        return result;
+    }
+
+    private JsonNode relationEndpoint(LocalOntology ontology, String iri, String relation, Map<String, String> params) {
+        ObjectNode term = ontology.byIri.get(iri);
+        if (term == null)
+            return null;
+        List<ObjectNode> related;
+        switch (relation) {
+            case "hierarchicalChildren":
+            case "children":
+                related = ontology.children(iri);
+                break;
+            case "hierarchicalParents":
+            case "parents":
+                related = ontology.parents(iri);
+                break;
+            case "hierarchicalDescendants":
+            case "descendants":
+                related = ontology.closure(iri, ontology::children);
+                break;
+            case "hierarchicalAncestors":
+            case "ancestors":
+                related = ontology.closure(iri, ontology::parents);
+                break;
+            default:
+                return null;
+        }
+        String path = "/ontologies/" + ontology.id + "/terms/" + encode(encode(iri)) + "/" + relation;
+        return termPage(ontology, related, path, params, DEFAULT_PAGE_SIZE);
+    }
+
+    private JsonNode termPage(LocalOntology ontology, List<ObjectNode> docs, String path, Map<String, String> params, int defaultSize) {
+        int page = intParam(params, "page", 0);
+        int size = intParam(params, "size", defaultSize);
+        ObjectNode result = mapper.createObjectNode();
+        List<ObjectNode> pageDocs = slice(docs, page, size);
+        if (!pageDocs.isEmpty()) {
+            ArrayNode embedded = result.putObject("_embedded").putArray("terms");
+            pageDocs.forEach(doc -> embedded.add(ontology.render(doc)));
+        }
+        addPageInfo(result, path, docs.size(), page, size);
+        return result;
+    }
+
+    private JsonNode classPage(LocalOntology ontology, Map<String, String> params) {
+        int page = intParam(params, "page", 0);
+        int size = intParam(params, "size", DEFAULT_PAGE_SIZE);
+        ObjectNode result = mapper.createObjectNode();
+        result.put("page", page);
+        result.put("numElements", size);
+        result.put("totalPages", size == 0 ? 0 : (ontology.docs.size() + size - 1) / size);
+        result.put("totalElements", ontology.docs.size());
+        ArrayNode elements = result.putArray("elements");
+        slice(ontology.docs, page, size).forEach(doc -> elements.add(ontology.renderClass(doc)));
+        return result;
+    }
+
+    private void addPageInfo(ObjectNode result, String path, int total, int page, int size) {
+        int totalPages = size == 0 ? 0 : (total + size - 1) / size;
+        ObjectNode links = result.putObject("_links");
+        links.putObject("self").put("href", getBaseUrl() + "/api" + path + "?page=" + page + "&size=" + size);
+        if (page + 1 < totalPages)
+            links.putObject("next").put("href", getBaseUrl() + "/api" + path + "?page=" + (page + 1) + "&size=" + size);
+        ObjectNode pageNode = result.putObject("page");
+        pageNode.put("size", size);
+        pageNode.put("totalElements", total);
+        pageNode.put("totalPages", totalPages);
+        pageNode.put("number", page);
+    }
+
+    private JsonNode search(Map<String, String> params) {
+        String q = params.getOrDefault("q", "").trim();
+        boolean exact = "true".equalsIgnoreCase(params.get("exact")) || "on".equalsIgnoreCase(params.get("exact"));
+        boolean obsoletes = "true".equalsIgnoreCase(params.get("obsoletes"));
+        List<String> fields = Arrays.asList(params.getOrDefault("queryFields", "label,synonym").split(","));
+        Set<String> ontologyFilter = params.containsKey("ontology")
+                ? Arrays.stream(params.get("ontology").split(",")).map(String::toLowerCase).collect(Collectors.toSet())
+                : null;
+        List<String> childrenOf = params.containsKey("childrenOf")
+                ? Arrays.asList(params.get("childrenOf").split(","))
+                : Collections.emptyList();
+
+        List<JsonNode> docs = new ArrayList<>();
+        for (LocalOntology ontology : terms.values()) {
+            if (ontologyFilter != null && !ontologyFilter.contains(ontology.id))
+                continue;
+            for (ObjectNode term : ontology.docs) {
+                if (!obsoletes && term.path("is_obsolete").asBoolean(false))
+                    continue;
+                if (!matches(term, q, fields, exact))
+                    continue;
+                if (!childrenOf.isEmpty() && childrenOf.stream().noneMatch(parent -> ontology.isDescendant(term, parent)))
+                    continue;
+                docs.add(ontology.searchDoc(term));
+            }
+        }
+        int rows = intParam(params, "rows", 10);
+        int start = intParam(params, "start", 0);
+        ObjectNode result = mapper.createObjectNode();
+        ObjectNode response = result.putObject("response");
+        response.put("numFound", docs.size());
+        response.put("start", start);
+        ArrayNode array = response.putArray("docs");
+        docs.stream().skip(start).limit(rows).map(doc -> selectFields(doc, params.get("fieldList"))).forEach(array::add);
+        return result;
+    }
+
+    /*
+     * Like Solr, only the requested fields of a search result are returned.
+     */
+    private static JsonNode selectFields(JsonNode doc, String fieldList) {
+        if (fieldList == null || fieldList.isEmpty())
+            return doc;
+        ObjectNode selected = ((ObjectNode) doc).deepCopy();
+        selected.retain(Arrays.asList(fieldList.split(",")));
+        return selected;
+    }
+
+    /*
+     * A query made of quoted phrases ("MS:1000031" OR "MS:1002732") matches any of the phrases,
+     * quotes and backslashes are escaped with a backslash within a phrase.
+     */
+    private static boolean matches(JsonNode term, String q, List<String> fields, boolean exact) {
+        if (q.startsWith("\"")) {
+            Matcher phrase = QUOTED_PHRASE.matcher(q);
+            while (phrase.find())
+                if (matches(term, phrase.group(1).replaceAll("\\\\(.)", "$1"), fields, exact))
+                    return true;
+            return false;
+        }
+        String query = q.replace("*", "").toLowerCase();
+        if (query.isEmpty())
+            return false;
+        for (String field : fields) {
+            List<String> values = new ArrayList<>();
+            String name = "synonym".equals(field) ? "synonyms" : field;
+            JsonNode node = term.get(name);
+            if (node == null)
+                continue;
+            if (node.isArray())
+                node.forEach(value -> values.add(value.asText()));
+            else
+                values.add(node.asText());
+            for (String value : values) {
+                String candidate = value.toLowerCase();
+                if (exact ? candidate.equals(query) : candidate.contains(query))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    private JsonNode termsById(Map<String, String> params) {
+        String id = params.get("id");
+        ObjectNode result = mapper.createObjectNode();
+        ArrayNode array = mapper.createArrayNode();
+        if (id != null) {
+            for (LocalOntology ontology : terms.values()) {
+                ObjectNode term = ontology.byOboId.get(id);
+                if (term == null)
+                    term = ontology.byShortForm.get(id);
+                if (term == null)
+                    term = ontology.byIri.get(id);
+                if (term != null)
+                    array.add(ontology.render(term));
+            }
+        }
+        if (array.size() > 0)
+            result.putObject("_embedded").set("terms", array);
+        addPageInfo(result, "/terms", array.size(), 0, DEFAULT_PAGE_SIZE);
+        return result;
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue) {
+        try {
+            return params.containsKey(name) ? Integer.parseInt(params.get(name)) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static <T> List<T> slice(List<T> list, int page, int size) {
+        int from = Math.min(list.size(), page * size);
+        int to = Math.min(list.size(), from + size);
+        return list.subList(from, to);
+    }
+
+    /**
+     * Terms of one ontology with the lookup tables needed to answer the term endpoints.
+     */
+    private class LocalOntology {
+
+        private final String id;
+        private final List<ObjectNode> docs;
+        private final Map<String, ObjectNode> byIri = new HashMap<>();
+        private final Map<String, ObjectNode> byOboId = new HashMap<>();
+        private final Map<String, ObjectNode> byShortForm = new HashMap<>();
+        private final Map<String, List<ObjectNode>> childrenByIri = new HashMap<>();
+
+        LocalOntology(String id, List<ObjectNode> docs) {
+            this.id = id;
+            this.docs = docs;
+            for (ObjectNode doc : docs) {
+                byIri.put(doc.get("iri").asText(), doc);
+                if (doc.hasNonNull("obo_id"))
+                    byOboId.put(doc.get("obo_id").asText(), doc);
+                if (doc.hasNonNull("short_form"))
+                    byShortForm.put(doc.get("short_form").asText(), doc);
+            }
+            for (ObjectNode doc : docs)
+                for (JsonNode parent : doc.path("parents"))
+                    childrenByIri.computeIfAbsent(parent.asText(), k -> new ArrayList<>()).add(doc);
+        }
+
+        List<ObjectNode> roots() {
+            return docs.stream().filter(doc -> doc.path("parents").size() == 0).collect(Collectors.toList());
+        }
+
+        List<ObjectNode> children(String iri) {
+            return childrenByIri.getOrDefault(iri, Collections.emptyList());
+        }
+
+        List<ObjectNode> parents(String iri) {
+            List<ObjectNode> parents = new ArrayList<>();
+            for (JsonNode parent : byIri.get(iri).path("parents"))
+                if (byIri.containsKey(parent.asText()))
+                    parents.add(byIri.get(parent.asText()));
+            return parents;
+        }
+
+        /*
+         * Terms reachable from a term through the given relation, in breadth-first order.
+         */
+        List<ObjectNode> closure(String iri, Function<String, List<ObjectNode>> relation) {
+            List<ObjectNode> closure = new ArrayList<>();
+            Set<String> visited = new HashSet<>(Collections.singleton(iri));
+            Deque<String> queue = new ArrayDeque<>(Collections.singleton(iri));
+            while (!queue.isEmpty()) {
+                for (ObjectNode related : relation.apply(queue.poll())) {
+                    String relatedIri = related.get("iri").asText();
+                    if (visited.add(relatedIri)) {
+                        closure.add(related);
+                        queue.add(relatedIri);
+                    }
+                }
+            }
+            return closure;
+        }
+
+        boolean isDescendant(JsonNode term, String ancestorIri) {
+            Deque<JsonNode> queue = new ArrayDeque<>(Collections.singleton(term));
+            Set<String> visited = new HashSet<>();
+            while (!queue.isEmpty()) {
+                for (JsonNode parent : queue.poll().path("parents")) {
+                    String parentIri = parent.asText();
+                    if (parentIri.equals(ancestorIri))
+                        return true;
+                    if (visited.add(parentIri) && byIri.containsKey(parentIri))
+                        queue.add(byIri.get(parentIri));
+                }
+            }
+            return false;
+        }
+
+        /*
+         * Term document as returned by the /terms endpoints.
+         */
+        ObjectNode render(ObjectNode doc) {
+            ObjectNode term = doc.deepCopy();
+            String iri = doc.get("iri").asText();
+            term.remove("parents");
+            term.put("ontology_name", id);
+            term.put("ontology_prefix", id.toUpperCase());
+            term.put("ontology_iri", "http://purl.obolibrary.org/obo/" + id + ".owl");
+            term.put("is_defining_ontology", true);
+            term.put("is_root", doc.path("parents").size() == 0);
+            term.put("has_children", !children(iri).isEmpty());
+            if (!term.has("is_obsolete"))
+                term.put("is_obsolete", false);
+            String termPath = getBaseUrl() + "/api/ontologies/" + id + "/terms/" + encode(encode(iri));
+            ObjectNode links = term.putObject("_links");
+            links.putObject("self").put("href", termPath);
+            links.putObject("parents").put("href", termPath + "/parents");
+            links.putObject("children").put("href", termPath + "/children");
+            links.putObject("hierarchicalParents").put("href", termPath + "/hierarchicalParents");
+            links.putObject("hierarchicalChildren").put("href", termPath + "/hierarchicalChildren");
+            links.putObject("ancestors").put("href", termPath + "/ancestors");
+            links.putObject("descendants").put("href", termPath + "/descendants");
+            if (closureLinks) {
+                links.putObject("hierarchicalAncestors").put("href", termPath + "/hierarchicalAncestors");
+                links.putObject("hierarchicalDescendants").put("href", termPath + "/hierarchicalDescendants");
+            }
+            return term;
+        }
+
+        /*
+         * Class as returned by the v2 /classes endpoint. Like OLS4, a single parent is returned as a
+         * plain IRI and several parents as an array of objects with the IRI as value.
+         */
+        ObjectNode renderClass(ObjectNode doc) {
+            ObjectNode entity = mapper.createObjectNode();
+            entity.set("iri", doc.get("iri"));
+            JsonNode parents = doc.path("parents");
+            entity.put("hasHierarchicalParents", parents.size() > 0);
+            if (parents.size() == 1) {
+                entity.set("hierarchicalParent", parents.get(0));
+            } else if (parents.size() > 1) {
+                ArrayNode values = entity.putArray("hierarchicalParent");
+                for (JsonNode parent : parents)
+                    values.addObject().set("value", parent);
+            }
+            return entity;
+        }
+
+        /*
+         * Term document as returned by the Solr backed /search endpoint.
+         */
+        ObjectNode searchDoc(ObjectNode doc) {
+            ObjectNode result = mapper.createObjectNode();
+            result.put("id", id + ":class:" + doc.get("iri").asText());
+            for (String field : Arrays.asList("iri", "short_form", "obo_id", "label", "description", "term_replaced_by"))
+                if (doc.hasNonNull(field))
+                    result.set(field, doc.get(field));
+            result.put("ontology_name", id);
+            result.put("ontology_prefix", id.toUpperCase());
+            result.put("is_defining_ontology", true);
+            result.put("is_obsolete", doc.path("is_obsolete").asBoolean(false));
+            result.put("type", "class");
+            return result;
+        }
+    }
+}